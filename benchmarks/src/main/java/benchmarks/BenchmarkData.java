@@ -0,0 +1,25 @@
+package benchmarks;
+
+import main.java.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// fixed seed data so every run measures the same inputs
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<OrderItem> orderItems(UUID orderId, int count) {
+        Random random = new Random(42);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new OrderItem(orderId, new UUID(random.nextLong(), random.nextLong()),
+                    100 + random.nextInt(100_000), 1 + random.nextInt(10)));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import main.java.model.Order;
+import main.java.model.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Order.getTotal for an order built in memory, where the total is added up from its items on every call
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderTotalBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int items;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        UUID orderId = UUID.randomUUID();
+        List<OrderItem> orderItems = BenchmarkData.orderItems(orderId, items);
+        order = new Order(orderId, UUID.randomUUID(), "PENDING", LocalDateTime.now(), orderItems);
+    }
+
+    @Benchmark
+    public double getTotal() {
+        return order.getTotal();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import main.java.util.SecurityUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// BCrypt hashing and checking at several cost factors, every step up doubles the time
+// these are slow on purpose, single shot iterations keep a run of the high costs short
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        hash = SecurityUtil.hashPassword(PASSWORD, cost);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return SecurityUtil.hashPassword(PASSWORD, cost);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return SecurityUtil.verifyPassword(PASSWORD, hash);
+    }
+}
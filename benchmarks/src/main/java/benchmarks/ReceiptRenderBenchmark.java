@@ -0,0 +1,49 @@
+package benchmarks;
+
+import main.java.model.Order;
+import main.java.model.OrderItem;
+import main.java.util.OrderReceiptPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// the receipt text, shared by the file printer and the receipt journal, without any file I/O
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceiptRenderBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private Order order;
+    private List<OrderItem> orderItems;
+
+    @Setup
+    public void setUp() {
+        UUID orderId = UUID.randomUUID();
+        orderItems = BenchmarkData.orderItems(orderId, items);
+        order = new Order(orderId, UUID.randomUUID(), "COMPLETED", LocalDateTime.now(), orderItems);
+    }
+
+    @Benchmark
+    public String render() {
+        return OrderReceiptPrinter.render(order, orderItems);
+    }
+}
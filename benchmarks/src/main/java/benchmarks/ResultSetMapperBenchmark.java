@@ -0,0 +1,96 @@
+package benchmarks;
+
+import main.java.dao_impl.CategoryDAOImpl;
+import main.java.dao_impl.OrderDAOImpl;
+import main.java.dao_impl.OrderItemDAOImpl;
+import main.java.dao_impl.ProductDAOImpl;
+import main.java.dao_impl.UserDAOImpl;
+import main.java.model.Category;
+import main.java.model.Order;
+import main.java.model.OrderItem;
+import main.java.model.Product;
+import main.java.model.User;
+import main.java.util.DaoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// every ResultSetMapper.map against a stub row laid out like the SELECTs of its DAO
+// the stub adds the same small per-column cost to all of them, compare runs of one mapper with each other
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultSetMapperBenchmark {
+
+    private final ProductDAOImpl productMapper = new ProductDAOImpl();
+    private final UserDAOImpl userMapper = new UserDAOImpl();
+    private final CategoryDAOImpl categoryMapper = new CategoryDAOImpl();
+    private final OrderItemDAOImpl orderItemMapper = new OrderItemDAOImpl();
+    private final OrderDAOImpl orderMapper = new OrderDAOImpl(orderItemMapper);
+
+    private ResultSet productRow;
+    private ResultSet userRow;
+    private ResultSet categoryRow;
+    private ResultSet orderRow;
+    private ResultSet orderItemRow;
+
+    @Setup
+    public void setUp() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        // product_id, name, category_id, price, quantity
+        productRow = StubResultSet.of(id(), "Wireless Mouse", id(), 2_499L, 40);
+        // user_id, username, password, role
+        userRow = StubResultSet.of(id(), "cashier01", "$2a$10$abcdefghijklmnopqrstuuQ1cyjvO8F0rG6q5Bn0Ujt1Y8fH3sZ9e", "CASHIER");
+        // category_id, name, created_at
+        categoryRow = StubResultSet.of(id(), "Electronics", now);
+        // order_id, user_id, status, created_at, total_cents, item_count
+        orderRow = StubResultSet.of(id(), id(), "COMPLETED", now, 12_345L, 3);
+        // order_id, product_id, price_at_order, quantity
+        orderItemRow = StubResultSet.of(id(), id(), 2_499L, 2);
+    }
+
+    @Benchmark
+    public Product mapProduct() throws SQLException {
+        return productMapper.map(productRow);
+    }
+
+    @Benchmark
+    public User mapUser() throws SQLException {
+        return userMapper.map(userRow);
+    }
+
+    @Benchmark
+    public Category mapCategory() throws SQLException {
+        return categoryMapper.map(categoryRow);
+    }
+
+    @Benchmark
+    public Order mapOrder() throws SQLException {
+        return orderMapper.map(orderRow);
+    }
+
+    @Benchmark
+    public OrderItem mapOrderItem() throws SQLException {
+        return orderItemMapper.map(orderItemRow);
+    }
+
+    private static byte[] id() {
+        return DaoUtil.uuidToBytes(UUID.randomUUID());
+    }
+}
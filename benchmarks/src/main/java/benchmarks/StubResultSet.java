@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// a ResultSet positioned on one fixed row, just enough for the ResultSetMapper implementations
+// columns are read by position like the mappers do, anything else throws
+final class StubResultSet {
+
+    private StubResultSet() {
+    }
+
+    // values[0] is column 1; byte[] for ids, String, Long, Integer and Timestamp for the rest
+    static ResultSet of(Object... values) {
+        return (ResultSet) Proxy.newProxyInstance(StubResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBytes":
+                        case "getString":
+                        case "getTimestamp":
+                        case "getObject":
+                            return column(values, args);
+                        case "getLong": {
+                            Object value = column(values, args);
+                            return value == null ? 0L : ((Number) value).longValue();
+                        }
+                        case "getInt": {
+                            Object value = column(values, args);
+                            return value == null ? 0 : ((Number) value).intValue();
+                        }
+                        case "next":
+                            return true;
+                        case "wasNull":
+                            return false;
+                        case "close":
+                            return null;
+                        default:
+                            throw new SQLException("Not supported by the stub: " + method.getName());
+                    }
+                });
+    }
+
+    private static Object column(Object[] values, Object[] args) throws SQLException {
+        if (args == null || !(args[0] instanceof Integer)) {
+            throw new SQLException("The stub only reads columns by position");
+        }
+        return values[(Integer) args[0] - 1];
+    }
+}
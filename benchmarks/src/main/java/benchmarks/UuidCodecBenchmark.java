@@ -0,0 +1,50 @@
+package benchmarks;
+
+import main.java.util.DaoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// the BINARY(16) id conversion every DAO call does for each id it binds or reads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UuidCodecBenchmark {
+
+    private UUID id;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        id = UUID.randomUUID();
+        bytes = DaoUtil.uuidToBytes(id);
+    }
+
+    @Benchmark
+    public byte[] uuidToBytes() {
+        return DaoUtil.uuidToBytes(id);
+    }
+
+    @Benchmark
+    public UUID bytesToUUID() {
+        return DaoUtil.bytesToUUID(bytes);
+    }
+
+    @Benchmark
+    public UUID roundTrip() {
+        return DaoUtil.bytesToUUID(DaoUtil.uuidToBytes(id));
+    }
+}
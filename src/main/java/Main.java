@@ -3,11 +3,19 @@ package main.java;
 import main.java.controller.*;
 import main.java.dao.*;
 import main.java.dao_impl.*;
+import main.java.database.DBConnection;
+import main.java.database.MigrationRunner;
 import main.java.service.CategoryService;
+import main.java.service.OrderCommitPipeline;
 import main.java.service.OrderService;
+import main.java.service.ProductCache;
+import main.java.service.ReceiptPrintService;
+import main.java.service.StockReservationService;
 import main.java.service.InventoryService;
 import main.java.service.UserService;
 import main.java.ui.LoginFrame;
+import main.java.util.HashingService;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 public class Main {
@@ -18,18 +26,52 @@ public class Main {
     }
 
     private static void createAndShowGUI() {
+        // ------------------ 0. تحديث مخطط قاعدة البيانات (الجداول والفهارس) ------------------
+        try {
+            MigrationRunner.migrate();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Data Base Error", JOptionPane.ERROR_MESSAGE);
+            DBConnection.shutdown();
+            System.exit(1);
+        }
+
         // ------------------ 1. تهيئة طبقة الوصول للبيانات (DAO) ------------------
         UserDAO userDAO = new UserDAOImpl();
         CategoryDAO categoryDAO = new CategoryDAOImpl();
-        ProductDAO productDAO = new ProductDAOImpl();
+        ProductDAO productDAO;
+        try {
+            // مع STOCK_WRITE_BEHIND=journal تُجمع تغييرات المخزون وتُكتب دفعة واحدة
+            productDAO = WriteBehindProductDAO.fromEnvironment(new ProductDAOImpl());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Data Base Error", JOptionPane.ERROR_MESSAGE);
+            DBConnection.shutdown();
+            System.exit(1);
+            return;
+        }
         OrderItemDAO orderItemDAO = new OrderItemDAOImpl();
         OrderDAO orderDAO = new OrderDAOImpl(orderItemDAO);
 
         // ------------------ 2. تهيئة طبقة منطق الأعمال (Service) ------------------
-        UserService userService = new UserService(userDAO);
+        HashingService hashingService = new HashingService(); // BCrypt خارج مسار الواجهة، التكلفة من BCRYPT_COST
+        UserService userService = new UserService(userDAO, hashingService);
         CategoryService categoryService = new CategoryService(categoryDAO);
-        InventoryService inventoryService = new InventoryService(productDAO, categoryService);
-        OrderService orderService = new OrderService(orderDAO, orderItemDAO, productDAO, userDAO); // افتراضية
+        ProductCache productCache = new ProductCache(); // مشترك بين الخدمتين حتى يتم إبطاله عند كل تغيير في المخزون
+        InventoryService inventoryService = new InventoryService(productDAO, categoryService, productCache);
+        StockReservationService stockReservations = new StockReservationService(productDAO, productCache); // حجز المخزون للسلة مع مدة صلاحية
+        OrderService orderService = new OrderService(orderDAO, orderItemDAO, productDAO, userDAO, productCache, stockReservations); // افتراضية
+        ReceiptPrintService receiptPrintService;
+        try {
+            receiptPrintService = new ReceiptPrintService(orderService); // عدد محدود من خيوط الطباعة بدلاً من Thread لكل إيصال
+        } catch (RuntimeException e) {
+            // أرشيف الإيصالات (RECEIPT_ARCHIVE=journal) لم يفتح
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Receipt Archive Error", JOptionPane.ERROR_MESSAGE);
+            DBConnection.shutdown();
+            System.exit(1);
+            return;
+        }
 
         // ------------------ 3. تهيئة طبقة التحكم (Controller) ------------------
 
@@ -37,7 +79,9 @@ public class Main {
         CategoryController categoryController = new CategoryController(categoryService); // إنشاء متحكم الأصناف
         InventoryController inventoryController = new InventoryController(inventoryService, categoryService);
         UserController userController = new UserController(userService);
-        OrderController orderController = new OrderController(orderService);
+        // مع ORDER_GROUP_COMMIT=true تُكتب الطلبات المتزامنة في معاملة واحدة
+        OrderController orderController = new OrderController(orderService, receiptPrintService,
+                OrderCommitPipeline.fromEnvironment(orderService));
 
         // يمكننا إضافة متحكم الطلبات هنا لاحقاً (OrderController)
 
@@ -4,6 +4,9 @@ import main.java.model.User;
 import main.java.service.UserService;
 import main.java.util.SessionUtil;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public class AuthController {
     private final UserService userService;
 
@@ -21,4 +24,20 @@ public class AuthController {
 
         return false;
     }
+
+    // does the password check off the EDT, completes with false for wrong credentials
+    public CompletableFuture<Boolean> loginAsync(String username, String password) {
+        return userService.loginAsync(username, password)
+                .handle((user, error) -> {
+                    if (error == null && user != null) {
+                        SessionUtil.setCurrentUser(user);
+                        return true;
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause == null || cause instanceof SecurityException) {
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
 }
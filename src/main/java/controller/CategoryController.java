@@ -19,6 +19,11 @@ public class CategoryController {
         return categoryService.getAllCategories();
     }
 
+    // changes only when the categories changed, lets the panels skip rebuilding their maps
+    public long getCategoriesVersion() {
+        return categoryService.getCategoriesVersion();
+    }
+
 
     public Category createCategory(String name) throws Exception {
         // نفترض وجود دالة createCategory في CategoryService
@@ -6,7 +6,9 @@ import main.java.service.CategoryService;
 import main.java.service.InventoryService;
 
 import javax.swing.*;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +30,28 @@ public class InventoryController {
         return inventoryService.getAllProducts(); // نفترض وجود هذه الدالة في الخدمة
     }
 
+    //forces a fresh read from the database, the normal getAllProducts may be served from memory
+    public List<Product> refreshProducts() {
+        return inventoryService.refreshProducts();
+    }
+
+    public void shutdown() {
+        inventoryService.shutdown();
+    }
+
+    //type-ahead search for the POS product list
+    public boolean isProductSearchReady() {
+        return inventoryService.isProductSearchReady();
+    }
+
+    public List<Product> searchProducts(String text, int limit) {
+        return inventoryService.searchProducts(text, limit);
+    }
+
+    //bulk lookup used by the order views so they do not ask for every product one by one
+    public Map<UUID, Product> getProductsByIds(Collection<UUID> productIds) {
+        return inventoryService.getProductsByIds(productIds);
+    }
 
     public List<Category> getAllCategories() {
         return categoryService.getAllCategories(); // نفترض وجود هذه الدالة في الخدمة
@@ -4,24 +4,45 @@ import main.java.dao.OrderDAO;
 import main.java.dao.ProductDAO;
 import main.java.model.Order;
 import main.java.model.OrderItem;
+import main.java.model.OrderSummary;
 import main.java.model.Product;
+import main.java.service.OrderCommitPipeline;
 import main.java.service.OrderService;
-import main.java.util.OrderReceiptPrinter;
+import main.java.service.ReceiptPrintService;
 
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class OrderController {
 
+    private static final long RECEIPT_FLUSH_TIMEOUT_MS = 30_000;
+    private static final long ORDER_FLUSH_TIMEOUT_MS = 10_000;
+
     private final OrderService orderService;
+    private final ReceiptPrintService receiptPrintService;
+    // null when every order is committed on its own
+    private final OrderCommitPipeline orderPipeline;
 
     // --- Constructor: Dependency Injection ---
 
     public OrderController(OrderService orderService) {
+        this(orderService, new ReceiptPrintService(orderService));
+    }
+
+    public OrderController(OrderService orderService, ReceiptPrintService receiptPrintService) {
+        this(orderService, receiptPrintService, null);
+    }
+
+    public OrderController(OrderService orderService, ReceiptPrintService receiptPrintService, OrderCommitPipeline orderPipeline) {
         this.orderService = orderService;
+        this.receiptPrintService = receiptPrintService;
+        this.orderPipeline = orderPipeline;
     }
 
 
@@ -52,11 +73,27 @@ public class OrderController {
         }
     }
 
+    // paged access for the order history table
+    public int getOrderCount() {
+        return orderService.countOrders();
+    }
+
+    public List<OrderSummary> getOrderSummaries(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) {
+        return orderService.findOrderSummaries(fromCreatedAt, fromOrderId, limit);
+    }
+
+    public Optional<Order> getOrderAtPosition(int position) {
+        return orderService.findOrderAtPosition(position);
+    }
+
     // --- POS Action Methods ---
 
 
     public UUID placeNewOrder(UUID userId, List<OrderItem> cartItems) {
         try {
+            if (orderPipeline != null) {
+                return awaitOrder(orderPipeline.submit(userId, cartItems, null));
+            }
             // تفويض العملية لطبقة الخدمة التي تدير المعاملات (Transaction)
             return orderService.placeOrder(userId, cartItems);
 
@@ -69,26 +106,81 @@ public class OrderController {
         }
     }
 
-    //to print the order
-    public void printOrderReceipt(UUID orderId) {
+    // the cart on a POS terminal holds its stock from the moment an item is added
+    public void reserveStock(UUID cartId, UUID productId, int quantity) {
+        orderService.reserveStock(cartId, productId, quantity);
+    }
+
+    public void releaseStock(UUID cartId) {
+        orderService.releaseStock(cartId);
+    }
+
+    public int getAvailableToSell(UUID productId) {
+        return orderService.getAvailableToSell(productId);
+    }
+
+    public UUID placeNewOrder(UUID userId, List<OrderItem> cartItems, UUID cartId) {
+        if (orderPipeline != null) {
+            return awaitOrder(orderPipeline.submit(userId, cartItems, cartId));
+        }
+        return orderService.placeOrder(userId, cartItems, cartId);
+    }
+
+    // the caller waits for its own order like with the direct call, and gets the same exceptions
+    private UUID awaitOrder(CompletableFuture<UUID> placed) {
         try {
-            Optional<Order> orderOpt = orderService.findOrderById(orderId);
-            if (orderOpt.isPresent()) {
-                Order order = orderOpt.get();
-                List<OrderItem> items = order.getOrderItems();
-
-                // تشغيل الطباعة في Thread منفصل
-                OrderReceiptPrinter printer = new OrderReceiptPrinter(order, items);
-                new Thread(printer).start();
-            } else {
-                throw new IllegalArgumentException("Order not found with ID: " + orderId);
+            return placed.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initiate printing.", e);
+            throw e;
+        }
+    }
+
+    //to print the order
+    // completes once the receipt is written, or right away when it was already archived
+    public CompletableFuture<ReceiptPrintService.PrintResult> printOrderReceipt(UUID orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("Order ID cannot be null.");
+        }
+        return receiptPrintService.print(orderId);
+    }
+
+    // the text of a receipt for showing it again, served from the receipt journal when it is enabled
+    public String getReceiptText(UUID orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("Order ID cannot be null.");
+        }
+        return receiptPrintService.getReceiptText(orderId);
+    }
+
+    // end of day reprint, completes with the number of receipts written
+    public CompletableFuture<Integer> printReceiptsForDateRange(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new IllegalArgumentException("A valid date range is required.");
+        }
+        return receiptPrintService.printAllForDateRange(start, end);
+    }
+
+    // called when the application closes, waits for the receipts that are still queued
+    public void shutdown() {
+        // orders still in the pipeline are written first, their receipts may be printed after
+        if (orderPipeline != null && !orderPipeline.shutdown(ORDER_FLUSH_TIMEOUT_MS)) {
+            System.err.println("Some orders were not placed before shutdown.");
+        }
+        if (!receiptPrintService.shutdown(RECEIPT_FLUSH_TIMEOUT_MS)) {
+            System.err.println("Some receipts were not written before shutdown.");
         }
+        orderService.shutdown();
     }
 
     public Optional<Order> findOrderById(UUID orderId) {
         return orderService.findOrderById(orderId);
     }
+
+    // the code staff type in from a printed receipt, may match more than one order
+    public List<Order> findOrdersByReceiptCode(String code) {
+        return orderService.findOrdersByIdPrefix(code);
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import main.java.service.UserService;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class UserController {
 
@@ -24,6 +25,15 @@ public class UserController {
         return userService.updateUser(user);
     }
 
+    // async versions for the UI, password hashing runs on the hashing threads
+    public CompletableFuture<User> createUserAsync(String username, String password, String role) {
+        return userService.createUserAsync(new User(username, password, role));
+    }
+
+    public CompletableFuture<User> updateUserAsync(User user) {
+        return userService.updateUserAsync(user);
+    }
+
 
     public void deleteUser(UUID userId) {
         userService.deleteUser(userId);
@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import java.util.UUID;
 import java.util.Optional;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CategoryDAO {
     Category save(Category category) throws SQLException;
@@ -16,5 +17,11 @@ public interface CategoryDAO {
 
     List<Category> findAll() throws SQLException;
 
+    // goes over every category in pages ordered by id, only one page is in memory at a time
+    void forEach(Consumer<? super Category> action) throws SQLException;
+
+    // cheap fingerprint of the whole table, it changes whenever a category is added or removed
+    String findVersion() throws SQLException;
+
     void delete(UUID uuid) throws SQLException;
 }
@@ -1,24 +1,48 @@
 package main.java.dao;
 
 import main.java.model.Order;
+import main.java.model.OrderSummary;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface OrderDAO {
     Order save(Order order) throws SQLException;
 
     Optional<Order> findById(UUID orderId)  throws SQLException;
 
+    // orders whose id starts with the given hex digits (no dashes), uses the primary key as a range
+    // a short code can belong to more than one order, so this returns at most limit matches
+    List<Order> findByIdPrefix(String hexPrefix, int limit) throws SQLException;
+
     List<Order> findByUserId(UUID userId)   throws SQLException;
 
     List<Order> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws SQLException;
 
     List<Order> findAll() throws SQLException;
 
+    // goes over every order (with its items) in pages ordered by id, only one page is in memory at a time
+    void forEach(Consumer<? super Order> action) throws SQLException;
+
+    // same as findByDateRange but paged, oldest first (created_at, order_id)
+    void forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, Consumer<? super Order> action) throws SQLException;
+
+    int countAll() throws SQLException;
+
+    // newest first (created_at DESC, order_id DESC), starts at the given order including it, null key = from the top
+    // uses keyset pagination so the cost does not grow with how far down the list we are
+    List<Order> findPage(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) throws SQLException;
+
+    // same order and keyset as findPage, but only the summary columns, totals are summed by the database
+    List<OrderSummary> findSummaries(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) throws SQLException;
+
+    // the order at a position of the newest first list, only its key fields are used to start a page there
+    Optional<Order> findByPosition(int position) throws SQLException;
+
     Order update(Order order)  throws SQLException;
 
     void delete(UUID orderId)   throws SQLException;
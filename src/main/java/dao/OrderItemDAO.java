@@ -3,19 +3,26 @@ package main.java.dao;
 import main.java.model.OrderItem;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface OrderItemDAO {
+    // does not touch orders.total_cents / item_count, the caller saves the order with its totals (see OrderService.placeOrder)
     void saveAll(List<OrderItem> items) throws SQLException;
 
     List<OrderItem> findByOrderId(UUID orderId) throws SQLException;
 
+    // loads the items of many orders at once, the key is the order id
+    Map<UUID, List<OrderItem>> findByOrderIds(Collection<UUID> orderIds) throws SQLException;
+
+    // also recomputes the stored total and item count of the order
     OrderItem update(OrderItem orderItem) throws SQLException;
 
     // delete order with all items
     void deleteByOrderId(UUID orderId) throws SQLException;
 
-    // delete item in order
+    // delete item in order, also recomputes the stored total and item count of the order
     void deleteByKeys(UUID orderId, UUID productId) throws SQLException;
 }
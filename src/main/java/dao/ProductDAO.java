@@ -3,9 +3,12 @@ package main.java.dao;
 import main.java.model.Product;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ProductDAO {
 
@@ -17,12 +20,22 @@ public interface ProductDAO {
 
     void updateStock(UUID productId, int quantityChange) throws SQLException;
 
+    //applies many stock changes in one batch, key is the product id and value the change
+    void updateStocks(Map<UUID, Integer> quantityChanges) throws SQLException;
+
+    //takes the given amounts out of stock in one batch but only where enough stock is left
+    //returns the ids of the products that did not have enough, those rows are left unchanged
+    List<UUID> decrementStockIfAvailable(Map<UUID, Integer> quantities) throws SQLException;
+
     //deleted a product
     void delete(UUID productId)throws SQLException;
 
     //looks for product in the database by its id
     Optional<Product> findByProductId(UUID productId)throws SQLException;
 
+    //looks up many products at once, ids that do not exist are simply missing from the map
+    Map<UUID, Product> findByProductIds(Collection<UUID> productIds)throws SQLException;
+
     //looks for the product in the database by its name
     Optional<Product> findByProductName(String name)throws SQLException;
 
@@ -30,8 +43,19 @@ public interface ProductDAO {
     //no parameters needed cuz its gonna get everything from table
     List<Product> findAll()throws SQLException;
 
+    //goes over every product in pages ordered by id, only one page is in memory at a time
+    void forEach(Consumer<? super Product> action)throws SQLException;
+
     //this tells us when a product is near empty
     List<Product> findLowStock(int threshold)throws SQLException;
 
+    //writes out stock changes that are still buffered, the plain dao writes every change right away
+    default void flush()throws SQLException{
+    }
+
+    //called once when the application closes
+    default void close()throws SQLException{
+    }
+
 
 }
@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 
 public interface UserDAO {
@@ -20,8 +21,14 @@ public interface UserDAO {
 
     Optional<User> findUserById(UUID id) throws SQLException;
 
+    // only the password hash of this user, empty if the id no longer has this username
+    Optional<String> findPasswordHash(UUID userId, String username) throws SQLException;
+
     List<User> findAll() throws SQLException;
 
+    // goes over every user in pages ordered by id, only one page is in memory at a time
+    void forEach(Consumer<? super User> action) throws SQLException;
+
     // this will update the user in the database
     User update(User user) throws SQLException;
 
@@ -5,13 +5,14 @@ import main.java.model.Category;
 import main.java.database.DBConnection;
 import main.java.util.DaoUtil;
 import main.java.util.ResultSetMapper;
+import main.java.util.UuidGenerator;
 
-import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.time.LocalDateTime;
 
 public class CategoryDAOImpl implements CategoryDAO, ResultSetMapper<Category> {
@@ -20,14 +21,17 @@ public class CategoryDAOImpl implements CategoryDAO, ResultSetMapper<Category> {
     private static final String SELECT_BY_ID_SQL = "SELECT category_id, name, created_at FROM categories WHERE category_id = ?";
     private static final String SELECT_BY_NAME_SQL = "SELECT category_id, name, created_at FROM categories WHERE name = ?";
     private static final String SELECT_ALL_SQL = "SELECT category_id, name, created_at FROM categories";
+    private static final String FIRST_PAGE_SQL = "SELECT category_id, name, created_at FROM categories ORDER BY category_id LIMIT ?";
+    private static final String NEXT_PAGE_SQL = "SELECT category_id, name, created_at FROM categories WHERE category_id > ? ORDER BY category_id LIMIT ?";
     private static final String DELETE_SQL = "DELETE FROM categories WHERE category_id = ?";
+    private static final String SELECT_VERSION_SQL = "SELECT COUNT(*), COALESCE(SUM(CRC32(category_id)), 0) FROM categories";
 
+    // columns are read by position, every SELECT above lists them as category_id, name, created_at
     @Override
     public Category map(ResultSet rs) throws SQLException {
-        byte[] idBytes = rs.getBytes("category_id");
-        UUID categoryId = DaoUtil.bytesToUUID(idBytes);
-        String name = rs.getString("name");
-        Timestamp timestamp = rs.getTimestamp("created_at");
+        UUID categoryId = DaoUtil.getUUID(rs, 1);
+        String name = rs.getString(2);
+        Timestamp timestamp = rs.getTimestamp(3);
         LocalDateTime createdAt = timestamp != null ? timestamp.toLocalDateTime() : null;
         return new Category(categoryId, name, createdAt);
     }
@@ -35,7 +39,7 @@ public class CategoryDAOImpl implements CategoryDAO, ResultSetMapper<Category> {
     @Override
     public Category save(Category category) throws SQLException {
         if (category.getCategoryId() == null) {
-            category.setCategoryId(UUID.randomUUID());
+            category.setCategoryId(UuidGenerator.newId());
         }
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY_SQL)) {
@@ -78,6 +82,19 @@ public class CategoryDAOImpl implements CategoryDAO, ResultSetMapper<Category> {
         }
     }
 
+    @Override
+    public void forEach(Consumer<? super Category> action) throws SQLException {
+        KeysetPager.forEachPage(FIRST_PAGE_SQL, NEXT_PAGE_SQL, this,
+                (stmt, after) -> {
+                    if (after == null) {
+                        return 1;
+                    }
+                    stmt.setBytes(1, DaoUtil.uuidToBytes(after.getCategoryId()));
+                    return 2;
+                },
+                page -> page.forEach(action));
+    }
+
     @Override
     public List<Category> findAll()  throws SQLException {
         List<Category> categories = new ArrayList<>();
@@ -93,6 +110,18 @@ public class CategoryDAOImpl implements CategoryDAO, ResultSetMapper<Category> {
         return categories;
     }
 
+    @Override
+    public String findVersion() throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stmt = con.prepareStatement(SELECT_VERSION_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1) + ":" + rs.getLong(2);
+            }
+            return "0:0";
+        }
+    }
+
     @Override
     public void delete(UUID uuid) throws SQLException {
         try (Connection con = DBConnection.getConnection();
@@ -0,0 +1,62 @@
+package main.java.dao_impl;
+
+import main.java.database.DBConnection;
+import main.java.util.ResultSetMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// reads a whole table (or a big range of it) one page at a time, for the forEach methods of the DAOs
+// every page is a new "WHERE key > last key ORDER BY key LIMIT n" query, so only one page is in memory,
+// and the connection goes back to the pool before the page is handed out, so a slow consumer does not hold it
+final class KeysetPager {
+
+    static final int PAGE_SIZE = 1000;
+
+    // binds the query parameters, after is null for the first page, returns the index of the LIMIT parameter
+    interface ParameterBinder<T> {
+        int bind(PreparedStatement stmt, T after) throws SQLException;
+    }
+
+    interface PageHandler<T> {
+        void accept(List<T> page) throws SQLException;
+    }
+
+    private KeysetPager() {
+    }
+
+    // firstPageSql and nextPageSql must both end with "ORDER BY <key> LIMIT ?"
+    static <T> void forEachPage(String firstPageSql, String nextPageSql, ResultSetMapper<T> mapper,
+                                ParameterBinder<T> binder, PageHandler<T> handler) throws SQLException {
+        T last = null;
+        while (true) {
+            List<T> page = new ArrayList<>(PAGE_SIZE);
+
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(last == null ? firstPageSql : nextPageSql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                stmt.setFetchSize(PAGE_SIZE);
+                stmt.setInt(binder.bind(stmt, last), PAGE_SIZE);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        page.add(mapper.map(rs));
+                    }
+                }
+            }
+
+            if (!page.isEmpty()) {
+                handler.accept(page);
+            }
+            if (page.size() < PAGE_SIZE) {
+                return;
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+}
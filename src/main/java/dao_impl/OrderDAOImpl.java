@@ -4,27 +4,45 @@ import main.java.dao.OrderDAO;
 import main.java.dao.OrderItemDAO;
 import main.java.database.DBConnection;
 import main.java.model.Order;
+import main.java.model.OrderItem;
+import main.java.model.OrderSummary;
 import main.java.util.DaoUtil;
 import main.java.util.ResultSetMapper;
+import main.java.util.UuidGenerator;
 
-import java.nio.ByteBuffer;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
 
-    private static final String INSERT_ORDER_SQL = "INSERT INTO orders(order_id, user_id) VALUES (?, ?)";
-    private static final String SELECT_BY_ORDER_ID_SQL = "SELECT order_id, user_id,status ,created_at FROM orders WHERE order_id = ?";
-    private static final String SELECT_BY_USER_ID_SQL = "SELECT order_id, user_id,status ,created_at FROM orders WHERE user_id = ?";
-    private static final String SELECT_BY_DATE_SQL = "SELECT order_id, user_id,status ,created_at FROM orders WHERE created_at BETWEEN ? AND ?";
-    private static final String SELECT_ALL_SQL = "SELECT order_id, user_id,status ,created_at FROM orders";
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders(order_id, user_id, status, total_cents, item_count) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_ORDER_ID_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE order_id = ?";
+    private static final String SELECT_BY_ID_RANGE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE order_id BETWEEN ? AND ? ORDER BY order_id LIMIT ?";
+    private static final String SELECT_BY_USER_ID_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE user_id = ?";
+    private static final String SELECT_BY_DATE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE created_at BETWEEN ? AND ?";
+    private static final String SELECT_ALL_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders";
+    private static final String FIRST_PAGE_BY_ID_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders ORDER BY order_id LIMIT ?";
+    private static final String NEXT_PAGE_BY_ID_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE order_id > ? ORDER BY order_id LIMIT ?";
+    private static final String FIRST_PAGE_BY_DATE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE created_at BETWEEN ? AND ? ORDER BY created_at, order_id LIMIT ?";
+    private static final String NEXT_PAGE_BY_DATE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE created_at BETWEEN ? AND ? AND (created_at > ? OR (created_at = ? AND order_id > ?)) ORDER BY created_at, order_id LIMIT ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM orders";
+    private static final String SELECT_FIRST_PAGE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders ORDER BY created_at DESC, order_id DESC LIMIT ?";
+    private static final String SELECT_PAGE_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders WHERE created_at < ? OR (created_at = ? AND order_id <= ?) ORDER BY created_at DESC, order_id DESC LIMIT ?";
+    // the totals are stored on the order row, a summary page does not touch order_items at all
+    private static final String SELECT_SUMMARY_COLUMNS = "SELECT order_id, status, created_at, item_count, total_cents FROM orders ";
+    private static final String SUMMARY_ORDER = "ORDER BY created_at DESC, order_id DESC LIMIT ?";
+    private static final String SELECT_FIRST_SUMMARIES_SQL = SELECT_SUMMARY_COLUMNS + SUMMARY_ORDER;
+    private static final String SELECT_SUMMARIES_SQL = SELECT_SUMMARY_COLUMNS
+            + "WHERE created_at < ? OR (created_at = ? AND order_id <= ?) " + SUMMARY_ORDER;
+    private static final String SELECT_AT_POSITION_SQL = "SELECT order_id, user_id,status ,created_at, total_cents, item_count FROM orders ORDER BY created_at DESC, order_id DESC LIMIT 1 OFFSET ?";
     private static final String UPDATE_SQL = "UPDATE orders SET status = ? WHERE order_id = ?";
     private static final String DELETE_SQL = "DELETE FROM orders WHERE order_id = ?";
-    private static final String SELECT_ITEMS_BY_ORDER_ID_SQL = "SELECT order_id, product_id, price_at_order, quantity FROM order_items WHERE order_id = ?";
 
     private final OrderItemDAO orderItemDAO;
 
@@ -32,22 +50,25 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
         this.orderItemDAO = orderItemDAO;
     }
 
+    // columns are read by position, every order SELECT above lists them as
+    // order_id, user_id, status, created_at, total_cents, item_count
     @Override
     public Order map(ResultSet rs) throws SQLException {
-        byte[] orderIdBytes = rs.getBytes("order_id");
-        UUID orderId = DaoUtil.bytesToUUID(orderIdBytes);
-        byte[] userIdBytes = rs.getBytes("user_id");
-        UUID userId = DaoUtil.bytesToUUID(userIdBytes);
-        String status = rs.getString("status");
-        Timestamp timestamp = rs.getTimestamp("created_at");
+        UUID orderId = DaoUtil.getUUID(rs, 1);
+        UUID userId = DaoUtil.getUUID(rs, 2);
+        String status = rs.getString(3);
+        Timestamp timestamp = rs.getTimestamp(4);
         LocalDateTime createdAt = timestamp != null ? timestamp.toLocalDateTime() : null;
-        return new Order(orderId, userId, status, createdAt);
+        Order order = new Order(orderId, userId, status, createdAt);
+        order.setTotalCents(rs.getLong(5));
+        order.setItemCount(rs.getInt(6));
+        return order;
     }
 
     @Override
     public Order save(Order order) throws SQLException {
         if(order.getOrderId() == null) {
-            order.setOrderId(UUID.randomUUID());
+            order.setOrderId(UuidGenerator.newId());
         }
 
         try (Connection conn = DBConnection.getConnection();
@@ -56,6 +77,9 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
             stmt.setBytes(1, orderIdBytes);
             byte[] userIdBytes = DaoUtil.uuidToBytes(order.getUserId());
             stmt.setBytes(2, userIdBytes);
+            stmt.setString(3, order.getStatus() != null ? order.getStatus() : "PENDING");
+            stmt.setLong(4, order.getTotalCents());
+            stmt.setInt(5, order.getItemCount());
 
             stmt.executeUpdate();
         }
@@ -81,6 +105,29 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
         }
     }
 
+    @Override
+    public List<Order> findByIdPrefix(String hexPrefix, int limit) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_RANGE_SQL)) {
+
+            // every id with this prefix sorts between prefix000... and prefixfff..., so the PK index does the search
+            stmt.setBytes(1, DaoUtil.uuidPrefixBound(hexPrefix, '0'));
+            stmt.setBytes(2, DaoUtil.uuidPrefixBound(hexPrefix, 'f'));
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(map(rs));
+                }
+            }
+        }
+
+        attachItems(orders);
+        return orders;
+    }
+
     @Override
     public List<Order> findByUserId(UUID userId) throws SQLException {
         List<Order> orders = new ArrayList<>();
@@ -89,16 +136,15 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_USER_ID_SQL)) {
 
             stmt.setBytes(1, DaoUtil.uuidToBytes(userId));
-            ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                Order order = map(rs);
-                order.setOrderItems(orderItemDAO.findByOrderId(order.getOrderId()));
-                orders.add(order);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(map(rs));
+                }
             }
-
         }
 
+        attachItems(orders);
         return orders;
     }
 
@@ -112,15 +158,14 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
             stmt.setTimestamp(1, Timestamp.valueOf(startDate));
             stmt.setTimestamp(2, Timestamp.valueOf(endDate));
 
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Order order = map(rs);
-                order.setOrderItems(orderItemDAO.findByOrderId(order.getOrderId()));
-                orders.add(order);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(map(rs));
+                }
             }
         }
 
+        attachItems(orders);
         return orders;
     }
 
@@ -129,20 +174,162 @@ public class OrderDAOImpl implements OrderDAO, ResultSetMapper<Order> {
         List<Order> orders = new ArrayList<>();
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL)) {
-
-            ResultSet rs = stmt.executeQuery();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                Order order = map(rs);
-                order.setOrderItems(orderItemDAO.findByOrderId(order.getOrderId()));
-                orders.add(order);
+                orders.add(map(rs));
+            }
+        }
+
+        attachItems(orders);
+        return orders;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) throws SQLException {
+        KeysetPager.forEachPage(FIRST_PAGE_BY_ID_SQL, NEXT_PAGE_BY_ID_SQL, this,
+                (stmt, after) -> {
+                    if (after == null) {
+                        return 1;
+                    }
+                    stmt.setBytes(1, DaoUtil.uuidToBytes(after.getOrderId()));
+                    return 2;
+                },
+                page -> {
+                    attachItems(page);
+                    page.forEach(action);
+                });
+    }
+
+    @Override
+    public void forEachInDateRange(LocalDateTime startDate, LocalDateTime endDate, Consumer<? super Order> action) throws SQLException {
+        KeysetPager.forEachPage(FIRST_PAGE_BY_DATE_SQL, NEXT_PAGE_BY_DATE_SQL, this,
+                (stmt, after) -> {
+                    stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+                    stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+                    if (after == null) {
+                        return 3;
+                    }
+                    Timestamp lastCreatedAt = Timestamp.valueOf(after.getCreatedAt());
+                    stmt.setTimestamp(3, lastCreatedAt);
+                    stmt.setTimestamp(4, lastCreatedAt);
+                    stmt.setBytes(5, DaoUtil.uuidToBytes(after.getOrderId()));
+                    return 6;
+                },
+                page -> {
+                    attachItems(page);
+                    page.forEach(action);
+                });
+    }
+
+    // loads the items of all the given orders with batched IN queries instead of one query per order
+    private void attachItems(List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        List<UUID> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getOrderId());
+        }
+
+        Map<UUID, List<OrderItem>> itemsByOrder = orderItemDAO.findByOrderIds(orderIds);
+        for (Order order : orders) {
+            order.setOrderItems(itemsByOrder.getOrDefault(order.getOrderId(), new ArrayList<>()));
+        }
+    }
+
+    @Override
+    public int countAll() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Order> findPage(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        boolean firstPage = fromCreatedAt == null || fromOrderId == null;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(firstPage ? SELECT_FIRST_PAGE_SQL : SELECT_PAGE_SQL)) {
+
+            if (firstPage) {
+                stmt.setInt(1, limit);
+            } else {
+                Timestamp from = Timestamp.valueOf(fromCreatedAt);
+                stmt.setTimestamp(1, from);
+                stmt.setTimestamp(2, from);
+                stmt.setBytes(3, DaoUtil.uuidToBytes(fromOrderId));
+                stmt.setInt(4, limit);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(map(rs));
+                }
             }
         }
 
+        attachItems(orders);
         return orders;
     }
 
+    @Override
+    public List<OrderSummary> findSummaries(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) throws SQLException {
+        List<OrderSummary> summaries = new ArrayList<>();
+        boolean firstPage = fromCreatedAt == null || fromOrderId == null;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(firstPage ? SELECT_FIRST_SUMMARIES_SQL : SELECT_SUMMARIES_SQL)) {
+
+            if (firstPage) {
+                stmt.setInt(1, limit);
+            } else {
+                Timestamp from = Timestamp.valueOf(fromCreatedAt);
+                stmt.setTimestamp(1, from);
+                stmt.setTimestamp(2, from);
+                stmt.setBytes(3, DaoUtil.uuidToBytes(fromOrderId));
+                stmt.setInt(4, limit);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapSummary(rs));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    // order_id, status, created_at, item_count, total_cents as listed in SELECT_SUMMARY_COLUMNS
+    private OrderSummary mapSummary(ResultSet rs) throws SQLException {
+        UUID orderId = DaoUtil.getUUID(rs, 1);
+        String status = rs.getString(2);
+        Timestamp timestamp = rs.getTimestamp(3);
+        LocalDateTime createdAt = timestamp != null ? timestamp.toLocalDateTime() : null;
+        return new OrderSummary(orderId, createdAt, status, rs.getInt(4), rs.getLong(5));
+    }
+
+    @Override
+    public Optional<Order> findByPosition(int position) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_AT_POSITION_SQL)) {
+
+            stmt.setInt(1, position);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(map(rs));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
     @Override
     public Order update(Order order) throws SQLException {
         try (Connection conn = DBConnection.getConnection();
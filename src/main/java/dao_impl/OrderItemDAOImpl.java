@@ -2,32 +2,40 @@ package main.java.dao_impl;
 
 import main.java.dao.OrderItemDAO;
 import main.java.database.DBConnection;
+import main.java.database.TransactionManager;
 import main.java.model.OrderItem;
 import main.java.util.DaoUtil;
 import main.java.util.ResultSetMapper;
 
-import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class OrderItemDAOImpl implements OrderItemDAO, ResultSetMapper<OrderItem> {
 
     private static final String INSERT_SQL = "INSERT INTO order_items (order_id, product_id, price_at_order, quantity) VALUES (?, ?, ?, ?)";
     private static final String SELECT_BY_ORDER_ID_SQL = "SELECT order_id, product_id, price_at_order, quantity FROM order_items WHERE order_id = ?";
+    private static final String SELECT_BY_ORDER_IDS_SQL = "SELECT order_id, product_id, price_at_order, quantity FROM order_items WHERE order_id IN (%s)";
     private static final String UPDATE_SQL = "UPDATE order_items SET price_at_order = ?, quantity = ? WHERE order_id = ? AND product_id = ?";
     private static final String DELETE_BY_ORDER_ID_SQL = "DELETE FROM order_items WHERE order_id = ?";
     private static final String DELETE_BY_KEYS_SQL = "DELETE FROM order_items WHERE order_id = ? AND product_id = ?";
+    private static final String RECOMPUTE_TOTALS_SQL = "UPDATE orders SET "
+            + "total_cents = (SELECT COALESCE(SUM(price_at_order * quantity), 0) FROM order_items WHERE order_id = ?), "
+            + "item_count = (SELECT COUNT(*) FROM order_items WHERE order_id = ?) "
+            + "WHERE order_id = ?";
 
+    // columns are read by position, every SELECT above lists them as order_id, product_id, price_at_order, quantity
     @Override
     public OrderItem map(ResultSet rs) throws SQLException {
-        byte[] orderIdBytes = rs.getBytes("order_id");
-        UUID orderId = DaoUtil.bytesToUUID(orderIdBytes);
-        byte[] productIdBytes = rs.getBytes("product_id");
-        UUID productId = DaoUtil.bytesToUUID(productIdBytes);
-        long priceAtOrder = rs.getLong("price_at_order");
-        int quantity = rs.getInt("quantity");
+        UUID orderId = DaoUtil.getUUID(rs, 1);
+        UUID productId = DaoUtil.getUUID(rs, 2);
+        long priceAtOrder = rs.getLong(3);
+        int quantity = rs.getInt(4);
         return new OrderItem(orderId, productId, priceAtOrder, quantity);
     }
 
@@ -95,17 +103,54 @@ public class OrderItemDAOImpl implements OrderItemDAO, ResultSetMapper<OrderItem
     }
 
     @Override
-    public OrderItem update(OrderItem orderItem) throws SQLException {
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+    public Map<UUID, List<OrderItem>> findByOrderIds(Collection<UUID> orderIds) throws SQLException {
+        Map<UUID, List<OrderItem>> itemsByOrder = new HashMap<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            return itemsByOrder;
+        }
 
-            stmt.setLong(1, orderItem.getPriceAtOrder());
-            stmt.setInt(2, orderItem.getQuantity());
-            stmt.setBytes(3, DaoUtil.uuidToBytes(orderItem.getOrderId()));
-            stmt.setBytes(4, DaoUtil.uuidToBytes(orderItem.getProductId()));
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
 
-            stmt.executeUpdate();
+        // one connection for all chunks, each chunk is a single IN (...) query
+        try (Connection conn = DBConnection.getConnection()) {
+            for (List<UUID> chunk : DaoUtil.chunks(ids, DaoUtil.IN_CHUNK_SIZE)) {
+                String sql = String.format(SELECT_BY_ORDER_IDS_SQL, DaoUtil.placeholders(chunk.size()));
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (UUID id : chunk) {
+                        stmt.setBytes(index++, DaoUtil.uuidToBytes(id));
+                    }
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            OrderItem item = map(rs);
+                            itemsByOrder.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item);
+                        }
+                    }
+                }
+            }
         }
+        return itemsByOrder;
+    }
+
+    @Override
+    public OrderItem update(OrderItem orderItem) throws SQLException {
+        // the item and the stored order total change together or not at all
+        TransactionManager.inTransaction(() -> {
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+
+                stmt.setLong(1, orderItem.getPriceAtOrder());
+                stmt.setInt(2, orderItem.getQuantity());
+                stmt.setBytes(3, DaoUtil.uuidToBytes(orderItem.getOrderId()));
+                stmt.setBytes(4, DaoUtil.uuidToBytes(orderItem.getProductId()));
+
+                stmt.executeUpdate();
+            }
+            recomputeTotals(orderItem.getOrderId());
+            return null;
+        });
 
         return orderItem;
     }
@@ -123,11 +168,29 @@ public class OrderItemDAOImpl implements OrderItemDAO, ResultSetMapper<OrderItem
 
     @Override
     public void deleteByKeys(UUID orderId, UUID productId) throws SQLException {
+        TransactionManager.inTransaction(() -> {
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(DELETE_BY_KEYS_SQL)) {
+
+                stmt.setBytes(1, DaoUtil.uuidToBytes(orderId));
+                stmt.setBytes(2, DaoUtil.uuidToBytes(productId));
+
+                stmt.executeUpdate();
+            }
+            recomputeTotals(orderId);
+            return null;
+        });
+    }
+
+    // sets orders.total_cents and item_count from the items that are in the database now
+    private void recomputeTotals(UUID orderId) throws SQLException {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(DELETE_BY_KEYS_SQL)) {
+             PreparedStatement stmt = conn.prepareStatement(RECOMPUTE_TOTALS_SQL)) {
 
-            stmt.setBytes(1, DaoUtil.uuidToBytes(orderId));
-            stmt.setBytes(2, DaoUtil.uuidToBytes(productId));
+            byte[] orderIdBytes = DaoUtil.uuidToBytes(orderId);
+            stmt.setBytes(1, orderIdBytes);
+            stmt.setBytes(2, orderIdBytes);
+            stmt.setBytes(3, orderIdBytes);
 
             stmt.executeUpdate();
         }
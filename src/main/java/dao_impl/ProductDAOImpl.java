@@ -5,39 +5,46 @@ import main.java.database.DBConnection;
 import main.java.model.Product;
 import main.java.util.DaoUtil;
 import main.java.util.ResultSetMapper;
+import main.java.util.UuidGenerator;
 
-import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class ProductDAOImpl implements ProductDAO, ResultSetMapper<Product> {
 
     private static final String INSERT_PRODUCT_SQL = "INSERT INTO products (product_id , name ,category_id, price,quantity ) VALUES (?,?,?,?,?)";
     private static final String UPDATE_PRODUCT_SQL = "UPDATE products SET name = ?, category_id = ?, price = ? ,quantity =? WHERE product_id= ?";
     private static final String DELETE_PRODUCT_SQL = "DELETE FROM products where product_id = ?";
-    private static final String FIND_BY_PRODUCTID_SQL ="SELECT * FROM products WHERE product_id =?";
-    private static final String FIND_BY_PRODUCTNAME_SQL = "SELECT * FROM products WHERE name=?";
-    private static final String FIND_ALL_SQL = "SELECT * FROM products";
-    private static final String FIND_LOW_STOCK_SQL = "SELECT * FROM products WHERE quantity < ?";
+    private static final String SELECT_PRODUCT_COLUMNS = "SELECT product_id, name, category_id, price, quantity FROM products";
+    private static final String FIND_BY_PRODUCTID_SQL = SELECT_PRODUCT_COLUMNS + " WHERE product_id =?";
+    private static final String FIND_BY_PRODUCTIDS_SQL = SELECT_PRODUCT_COLUMNS + " WHERE product_id IN (%s)";
+    private static final String FIND_BY_PRODUCTNAME_SQL = SELECT_PRODUCT_COLUMNS + " WHERE name=?";
+    private static final String FIND_ALL_SQL = SELECT_PRODUCT_COLUMNS;
+    private static final String FIRST_PAGE_SQL = SELECT_PRODUCT_COLUMNS + " ORDER BY product_id LIMIT ?";
+    private static final String NEXT_PAGE_SQL = SELECT_PRODUCT_COLUMNS + " WHERE product_id > ? ORDER BY product_id LIMIT ?";
+    private static final String FIND_LOW_STOCK_SQL = SELECT_PRODUCT_COLUMNS + " WHERE quantity < ?";
     private static final String UPDATE_STOCK_SQL = "UPDATE products SET quantity = quantity + ? WHERE product_id = ?";
+    private static final String DECREMENT_STOCK_SQL = "UPDATE products SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
 
+    // columns are read by position in the order of SELECT_PRODUCT_COLUMNS
     @Override
     public Product map(ResultSet rs) throws SQLException {
-        byte[] pidBytes = rs.getBytes("product_id");
-        UUID productId = DaoUtil.bytesToUUID(pidBytes);
-
-        byte[] cidBytes = rs.getBytes("category_id");
-        UUID categoryId = DaoUtil.bytesToUUID(cidBytes);
-
-        String name = rs.getString("name");
-        long price = rs.getLong("price");
-        int quantity = rs.getInt("quantity");
+        UUID productId = DaoUtil.getUUID(rs, 1);
+        String name = rs.getString(2);
+        UUID categoryId = DaoUtil.getUUID(rs, 3);
+        long price = rs.getLong(4);
+        int quantity = rs.getInt(5);
 
         Product product = new Product();
         product.setProductId(productId);
@@ -52,7 +59,7 @@ public class ProductDAOImpl implements ProductDAO, ResultSetMapper<Product> {
     @Override
     public Product save(Product product) throws SQLException {
         if(product.getProductId() == null){
-            product.setProductId(UUID.randomUUID());
+            product.setProductId(UuidGenerator.newId());
         }
         try(Connection conn = DBConnection.getConnection();
             PreparedStatement ps = conn.prepareStatement(INSERT_PRODUCT_SQL)) {
@@ -105,6 +112,55 @@ public class ProductDAOImpl implements ProductDAO, ResultSetMapper<Product> {
         }
     }
 
+    @Override
+    public void updateStocks(Map<UUID, Integer> quantityChanges) throws SQLException {
+        if (quantityChanges == null || quantityChanges.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STOCK_SQL)) {
+
+            for (Map.Entry<UUID, Integer> change : quantityChanges.entrySet()) {
+                stmt.setInt(1, change.getValue());
+                stmt.setBytes(2, DaoUtil.uuidToBytes(change.getKey()));
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
+    @Override
+    public List<UUID> decrementStockIfAvailable(Map<UUID, Integer> quantities) throws SQLException {
+        List<UUID> failed = new ArrayList<>();
+        if (quantities == null || quantities.isEmpty()) {
+            return failed;
+        }
+
+        //the check and the decrement happen in the same statement so two terminals can never both take the last unit
+        List<UUID> order = new ArrayList<>(quantities.keySet());
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DECREMENT_STOCK_SQL)) {
+
+            for (UUID productId : order) {
+                int amount = quantities.get(productId);
+                stmt.setInt(1, amount);
+                stmt.setBytes(2, DaoUtil.uuidToBytes(productId));
+                stmt.setInt(3, amount);
+                stmt.addBatch();
+            }
+
+            //each entry is the row count of one update, 0 means the WHERE quantity >= ? guard rejected it
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    failed.add(order.get(i));
+                }
+            }
+        }
+        return failed;
+    }
+
     @Override
     public void delete(UUID productId)throws SQLException{
 
@@ -141,6 +197,37 @@ public class ProductDAOImpl implements ProductDAO, ResultSetMapper<Product> {
         }
     }
 
+    @Override
+    public Map<UUID, Product> findByProductIds(Collection<UUID> productIds)throws SQLException{
+        Map<UUID, Product> products = new HashMap<>();
+        if(productIds == null || productIds.isEmpty()){
+            return products;
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+
+        //one connection and one query per chunk of ids instead of one query per product
+        try(Connection conn = DBConnection.getConnection()){
+            for(List<UUID> chunk : DaoUtil.chunks(ids, DaoUtil.IN_CHUNK_SIZE)){
+                String sql = String.format(FIND_BY_PRODUCTIDS_SQL, DaoUtil.placeholders(chunk.size()));
+
+                try(PreparedStatement ps = conn.prepareStatement(sql)){
+                    int index = 1;
+                    for(UUID id : chunk){
+                        ps.setBytes(index++, DaoUtil.uuidToBytes(id));
+                    }
+
+                    try(ResultSet rs = ps.executeQuery()){
+                        while(rs.next()){
+                            Product product = map(rs);
+                            products.put(product.getProductId(), product);
+                        }
+                    }
+                }
+            }
+        }
+        return products;
+    }
 
     @Override
     public Optional<Product> findByProductName(String name)throws SQLException {
@@ -162,6 +249,19 @@ public class ProductDAOImpl implements ProductDAO, ResultSetMapper<Product> {
         }
     }
 
+    @Override
+    public void forEach(Consumer<? super Product> action) throws SQLException {
+        KeysetPager.forEachPage(FIRST_PAGE_SQL, NEXT_PAGE_SQL, this,
+                (stmt, after) -> {
+                    if (after == null) {
+                        return 1;
+                    }
+                    stmt.setBytes(1, DaoUtil.uuidToBytes(after.getProductId()));
+                    return 2;
+                },
+                page -> page.forEach(action));
+    }
+
     @Override
     public List<Product> findAll()throws SQLException{
         //we made an arraylist to hold our products
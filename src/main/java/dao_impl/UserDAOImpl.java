@@ -5,8 +5,8 @@ import main.java.database.DBConnection;
 import main.java.model.User;
 import main.java.util.DaoUtil;
 import main.java.util.ResultSetMapper;
+import main.java.util.UuidGenerator;
 
-import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -15,24 +15,28 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class UserDAOImpl implements UserDAO, ResultSetMapper<User> {
 
     private static final String INSERT_USER_SQL = "INSERT INTO users (user_id, username, password, role) VALUES (?, ?, ?, ?)";
     private static final String FIND_BY_USERNAME_SQL = "SELECT user_id, username, password, role FROM users WHERE username = ?";
     private static final String FIND_BY_ID_SQL = "SELECT user_id, username, password, role FROM users WHERE user_id = ?";
+    private static final String FIND_PASSWORD_HASH_SQL = "SELECT password FROM users WHERE user_id = ? AND username = ?";
     private static final String FIND_ALL_SQL = "SELECT user_id, username, password, role FROM users";
+    private static final String FIRST_PAGE_SQL = "SELECT user_id, username, password, role FROM users ORDER BY user_id LIMIT ?";
+    private static final String NEXT_PAGE_SQL = "SELECT user_id, username, password, role FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
     private static final String UPDATE_USER_SQL = "UPDATE users SET username = ?, password =? , role = ? WHERE user_id = ?";
     private static final String DELETE_BY_USER_ID_SQL ="DELETE FROM users WHERE user_id =?";
 
+    // columns are read by position, every SELECT above lists them as user_id, username, password, role
     @Override
     public User map(ResultSet rs) throws SQLException {
-        byte[] idBytes = rs.getBytes("user_id");
-        UUID userId = DaoUtil.bytesToUUID(idBytes);
+        UUID userId = DaoUtil.getUUID(rs, 1);
 
-        String username = rs.getString("username");
-        String role = rs.getString("role");
-        String password = rs.getString("password");
+        String username = rs.getString(2);
+        String password = rs.getString(3);
+        String role = rs.getString(4);
 
 
         User user = new User();
@@ -47,7 +51,7 @@ public class UserDAOImpl implements UserDAO, ResultSetMapper<User> {
     @Override
     public User save(User user) throws SQLException{
         if(user.getUserId()== null){
-            user.setUserID(UUID.randomUUID());
+            user.setUserID(UuidGenerator.newId());
         }
         try(Connection conn = DBConnection.getConnection();
             PreparedStatement ps = conn.prepareStatement(INSERT_USER_SQL)) {
@@ -90,6 +94,22 @@ public class UserDAOImpl implements UserDAO, ResultSetMapper<User> {
         }
     }
 
+    @Override
+    public Optional<String> findPasswordHash(UUID userId, String username) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_PASSWORD_HASH_SQL)) {
+            stmt.setBytes(1, DaoUtil.uuidToBytes(userId));
+            stmt.setString(2, username);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getString(1));
+                }
+                return Optional.empty();
+            }
+        }
+    }
+
     @Override
     public Optional<User> findUserById(UUID id) throws SQLException {
         try (Connection conn = DBConnection.getConnection();
@@ -106,6 +126,19 @@ public class UserDAOImpl implements UserDAO, ResultSetMapper<User> {
         }
     }
 
+    @Override
+    public void forEach(Consumer<? super User> action) throws SQLException {
+        KeysetPager.forEachPage(FIRST_PAGE_SQL, NEXT_PAGE_SQL, this,
+                (stmt, after) -> {
+                    if (after == null) {
+                        return 1;
+                    }
+                    stmt.setBytes(1, DaoUtil.uuidToBytes(after.getUserId()));
+                    return 2;
+                },
+                page -> page.forEach(action));
+    }
+
     @Override
     public List<User> findAll() throws SQLException {
         try (Connection conn = DBConnection.getConnection();
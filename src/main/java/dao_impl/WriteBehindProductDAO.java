@@ -0,0 +1,322 @@
+package main.java.dao_impl;
+
+import main.java.dao.ProductDAO;
+import main.java.database.DBConnection;
+import main.java.database.TransactionManager;
+import main.java.model.Product;
+import main.java.util.EnvConfig;
+import main.java.util.StockDeltaJournal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// ProductDAO that does not write every updateStock right away: the changes are written to a local journal
+// (synced before the call returns), added up per product and written out every flush interval as one batch,
+// so a burst of stock changes on one product gets one UPDATE per interval instead of one each
+// only the unconditional updateStock/updateStocks deltas are buffered (stock corrections from the inventory
+// screen), placeOrder takes its stock with decrementStockIfAvailable which always goes straight to the database
+// every other call first writes out what is pending, so reads, price updates and the conditional decrement
+// always see the real stock, and when nothing is pending that check costs one volatile read and no handoff;
+// calls made inside a transaction skip that write, the caller flushed before the transaction started
+// enabled with STOCK_WRITE_BEHIND=journal
+// the journal belongs to one running application, its writer id (STOCK_WRITER_ID or one made from the host and the
+// journal directory) is stored next to it so two terminals never share a checkpoint row
+public class WriteBehindProductDAO implements ProductDAO {
+
+    private static final String FIND_CHECKPOINT_SQL = "SELECT last_sequence FROM stock_journal_checkpoint WHERE writer_id = ?";
+    private static final String SAVE_CHECKPOINT_SQL = "INSERT INTO stock_journal_checkpoint (writer_id, last_sequence) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_sequence = VALUES(last_sequence)";
+
+    private final ProductDAO delegate;
+    private final StockDeltaJournal journal;
+    private final String writerId;
+    // only this thread writes batches, so a flush never joins the transaction of the caller that asked for it
+    private final ScheduledExecutorService flusher;
+
+    private final Object pendingLock = new Object();
+    // guarded by pendingLock, product id -> change not written to the database yet
+    private Map<UUID, Integer> pending = new HashMap<>();
+    // pending is not empty, written under pendingLock but read without it so the reads skip the lock when idle
+    private volatile boolean dirty;
+
+    public WriteBehindProductDAO(ProductDAO delegate, StockDeltaJournal journal, String writerId, long flushIntervalMillis)
+            throws SQLException, IOException {
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.delegate = delegate;
+        this.journal = journal;
+        this.writerId = writerId;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // changes the last run accepted but did not get to write, the checkpoint says which ones are already in
+        pending.putAll(journal.replay(readCheckpoint()));
+        dirty = !pending.isEmpty();
+        flush();
+
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                writePending();
+            } catch (SQLException | RuntimeException e) {
+                // they stay pending and in the journal, the next run tries again
+                System.err.println("Could not write buffered stock changes: " + e.getMessage());
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // the plain dao unless STOCK_WRITE_BEHIND=journal
+    public static ProductDAO fromEnvironment(ProductDAO delegate) {
+        if (!"journal".equalsIgnoreCase(System.getenv("STOCK_WRITE_BEHIND"))) {
+            return delegate;
+        }
+        String dir = System.getenv("STOCK_JOURNAL_DIR");
+        String writerId = System.getenv("STOCK_WRITER_ID");
+        try {
+            StockDeltaJournal journal = new StockDeltaJournal(Paths.get(dir == null || dir.trim().isEmpty() ? "stock-journal" : dir.trim()));
+            // every terminal needs its own checkpoint row, a shared one would skip or repeat the others' changes
+            return new WriteBehindProductDAO(delegate, journal,
+                    journal.writerId(writerId == null || writerId.trim().isEmpty() ? null : writerId.trim()),
+                    EnvConfig.readInt("STOCK_FLUSH_MS", 100));
+        } catch (IOException | SQLException e) {
+            // falling back to the plain dao would leave the changes in the journal unapplied
+            throw new RuntimeException("Could not open the stock journal: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void updateStock(UUID productId, int quantityChange) throws SQLException {
+        if (quantityChange == 0) {
+            return;
+        }
+        long sequence;
+        try {
+            synchronized (pendingLock) {
+                // journal and pending change together, so a flush takes either both or neither
+                sequence = journal.write(productId, quantityChange);
+                pending.merge(productId, quantityChange, Integer::sum);
+                dirty = true;
+            }
+            journal.sync(sequence);
+        } catch (IOException e) {
+            throw new SQLException("Could not journal the stock change for product " + productId, e);
+        }
+    }
+
+    @Override
+    public void updateStocks(Map<UUID, Integer> quantityChanges) throws SQLException {
+        if (quantityChanges == null || quantityChanges.isEmpty()) {
+            return;
+        }
+        long sequence = 0;
+        try {
+            synchronized (pendingLock) {
+                for (Map.Entry<UUID, Integer> change : quantityChanges.entrySet()) {
+                    if (change.getValue() != 0) {
+                        sequence = journal.write(change.getKey(), change.getValue());
+                        pending.merge(change.getKey(), change.getValue(), Integer::sum);
+                        dirty = true;
+                    }
+                }
+            }
+            journal.sync(sequence);
+        } catch (IOException e) {
+            throw new SQLException("Could not journal the stock changes", e);
+        }
+    }
+
+    // writes out everything pending and waits for it
+    // the write needs a connection of its own, so inside a transaction this does nothing: the flusher would wait
+    // for rows the caller has locked while the caller waits for the flusher. callers flush before opening their
+    // transaction (placeOrder and the order pipeline do), changes buffered after that wait for the next flush
+    @Override
+    public void flush() throws SQLException {
+        if (!dirty || TransactionManager.isActive()) {
+            return;
+        }
+        Future<?> done = flusher.isShutdown() ? null : flusher.submit(() -> {
+            writePending();
+            return null;
+        });
+        if (done == null) {
+            writePending();
+            return;
+        }
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while writing buffered stock changes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new SQLException("Could not close the stock journal", e);
+        }
+    }
+
+    // the changes and the checkpoint go in one transaction, so after a crash every change is applied exactly once
+    private void writePending() throws SQLException {
+        Map<UUID, Integer> batch;
+        long upTo;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            dirty = false;
+            try {
+                upTo = journal.seal();
+            } catch (IOException e) {
+                pending = batch;
+                dirty = true;
+                throw new SQLException("Could not seal the stock journal", e);
+            }
+        }
+        batch.values().removeIf(change -> change == 0);
+
+        try {
+            TransactionManager.inTransaction(() -> {
+                delegate.updateStocks(batch);
+                saveCheckpoint(upTo);
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            synchronized (pendingLock) {
+                for (Map.Entry<UUID, Integer> change : batch.entrySet()) {
+                    pending.merge(change.getKey(), change.getValue(), Integer::sum);
+                }
+                dirty = !pending.isEmpty();
+            }
+            throw e;
+        }
+
+        try {
+            journal.deleteUpTo(upTo);
+        } catch (IOException e) {
+            // harmless, replay skips everything up to the checkpoint
+            System.err.println("Could not delete written stock journal segments: " + e.getMessage());
+        }
+    }
+
+    private long readCheckpoint() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_CHECKPOINT_SQL)) {
+
+            stmt.setString(1, writerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void saveCheckpoint(long sequence) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SAVE_CHECKPOINT_SQL)) {
+
+            stmt.setString(1, writerId);
+            stmt.setLong(2, sequence);
+            stmt.executeUpdate();
+        }
+    }
+
+    // everything below reads or writes products directly, so the pending changes have to be in first
+
+    @Override
+    public Product save(Product product) throws SQLException {
+        return delegate.save(product);
+    }
+
+    @Override
+    public Product update(Product product) throws SQLException {
+        flush();
+        return delegate.update(product);
+    }
+
+    @Override
+    public List<UUID> decrementStockIfAvailable(Map<UUID, Integer> quantities) throws SQLException {
+        flush();
+        return delegate.decrementStockIfAvailable(quantities);
+    }
+
+    @Override
+    public void delete(UUID productId) throws SQLException {
+        flush();
+        delegate.delete(productId);
+    }
+
+    @Override
+    public Optional<Product> findByProductId(UUID productId) throws SQLException {
+        flush();
+        return delegate.findByProductId(productId);
+    }
+
+    @Override
+    public Map<UUID, Product> findByProductIds(Collection<UUID> productIds) throws SQLException {
+        flush();
+        return delegate.findByProductIds(productIds);
+    }
+
+    @Override
+    public Optional<Product> findByProductName(String name) throws SQLException {
+        flush();
+        return delegate.findByProductName(name);
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        flush();
+        return delegate.findAll();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) throws SQLException {
+        flush();
+        delegate.forEach(action);
+    }
+
+    @Override
+    public List<Product> findLowStock(int threshold) throws SQLException {
+        flush();
+        return delegate.findLowStock(threshold);
+    }
+}
@@ -0,0 +1,388 @@
+package main.java.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a small bounded pool of physical connections, DBConnection hands out connections from here
+// the DAOs still call close() like before but close() now gives the connection back to the pool
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    // most recently returned connection is at the head so the tail holds the ones idle the longest
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private int totalCount;
+    private int activeCount;
+    private int waiterCount;
+    private long borrowCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long timeoutCount;
+    private boolean closed;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size min=" + minSize + " max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = 2;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        // open the minimum connections in the background so the first screen does not pay for them
+        evictor.execute(this::fillToMinimum);
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+        while (true) {
+            Connection physical = null;
+            boolean mustOpen = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    IdleConnection candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        physical = candidate.connection;
+                        activeCount++;
+                        break;
+                    }
+                    if (totalCount < maxSize) {
+                        // reserve the slot now and open the socket outside the lock
+                        totalCount++;
+                        activeCount++;
+                        mustOpen = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMillis
+                                + " ms waiting for a database connection (active=" + activeCount + ", max=" + maxSize + ")");
+                    }
+                    waiterCount++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiterCount--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mustOpen) {
+                try {
+                    physical = openPhysical();
+                } catch (SQLException e) {
+                    discardSlot();
+                    throw e;
+                }
+            } else if (!isValid(physical)) {
+                // validation on borrow, broken connections are dropped and we try again
+                closeQuietly(physical);
+                discardSlot();
+                continue;
+            }
+
+            recordWait(System.nanoTime() - start);
+            return wrap(physical);
+        }
+    }
+
+    // called by the proxy when a DAO closes its connection
+    void giveBack(Connection physical, boolean broken) {
+        if (!broken) {
+            try {
+                if (!physical.getAutoCommit()) {
+                    // whoever borrowed it left a transaction open, never hand that state to the next caller
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                broken = true;
+            }
+        }
+
+        lock.lock();
+        try {
+            activeCount--;
+            if (broken || closed) {
+                totalCount--;
+            } else {
+                idle.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (broken || closed) {
+            closeQuietly(physical);
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(activeCount, idle.size(), totalCount, waiterCount,
+                    borrowCount, timeoutCount,
+                    TimeUnit.NANOSECONDS.toMillis(totalWaitNanos),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        evictor.shutdownNow();
+        lock.lock();
+        try {
+            closed = true;
+            for (IdleConnection c : idle) {
+                closeQuietly(c.connection);
+                totalCount--;
+            }
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // closes connections that sat idle longer than the idle timeout but never goes below the minimum size
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Deque<Connection> toClose = new ArrayDeque<>();
+
+        lock.lock();
+        try {
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount > minSize) {
+                IdleConnection c = it.next();
+                if (now - c.idleSince < idleTimeoutMillis) {
+                    break;
+                }
+                it.remove();
+                totalCount--;
+                toClose.add(c.connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Connection c : toClose) {
+            closeQuietly(c);
+        }
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalCount >= minSize) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                Connection physical = openPhysical();
+                boolean pooled = false;
+                lock.lock();
+                try {
+                    // close() may have run while the socket was opening, then nobody would ever close this one
+                    if (!closed) {
+                        idle.addLast(new IdleConnection(physical, System.currentTimeMillis()));
+                        available.signal();
+                        pooled = true;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!pooled) {
+                    closeQuietly(physical);
+                    releaseFillSlot();
+                    return;
+                }
+            } catch (SQLException e) {
+                releaseFillSlot();
+                return;
+            }
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private boolean isValid(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discardSlot() {
+        lock.lock();
+        try {
+            totalCount--;
+            activeCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the slot fillToMinimum reserved was never handed to a borrower, so only the total goes back
+    private void releaseFillSlot() {
+        lock.lock();
+        try {
+            totalCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        lock.lock();
+        try {
+            borrowCount++;
+            totalWaitNanos += waitNanos;
+            if (waitNanos > maxWaitNanos) {
+                maxWaitNanos = waitNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            // nothing we can do, the connection is being thrown away anyway
+        }
+    }
+
+    private static final class IdleConnection {
+        final Connection connection;
+        final long idleSince;
+
+        IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    // forwards everything to the physical connection except close() which returns it to the pool
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+        private boolean broken;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(physical, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    // SQLState class 08 means the connection itself failed so we should not reuse it
+    private static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
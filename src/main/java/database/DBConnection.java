@@ -1,7 +1,7 @@
 package main.java.database;
 
+import main.java.util.EnvConfig;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
@@ -11,15 +11,43 @@ public class DBConnection {
     private static final String BD_PASSWORD = System.getenv("BD_PASSWORD");
     private static final String BD_DRIVER = System.getenv("BD_DRIVER");
 
+    // pool settings, all optional
+    private static final int BD_POOL_MIN = EnvConfig.readInt("BD_POOL_MIN", 2);
+    private static final int BD_POOL_MAX = EnvConfig.readInt("BD_POOL_MAX", 10);
+    private static final long BD_POOL_TIMEOUT_MS = EnvConfig.readLong("BD_POOL_TIMEOUT_MS", 10_000);
+    private static final long BD_POOL_IDLE_MS = EnvConfig.readLong("BD_POOL_IDLE_MS", 300_000);
+
+    private static final ConnectionPool POOL;
+
     static {
         try {
             Class.forName(BD_DRIVER);
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
         }
+        POOL = new ConnectionPool(BD_URL, BD_USER, BD_PASSWORD,
+                BD_POOL_MIN, BD_POOL_MAX, BD_POOL_TIMEOUT_MS, BD_POOL_IDLE_MS);
     }
 
+    // the returned connection goes back to the pool when it is closed
+    // inside TransactionManager.inTransaction(...) this returns the connection of the running transaction
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(BD_URL, BD_USER, BD_PASSWORD);
+        Connection participant = TransactionManager.currentParticipant();
+        if (participant != null) {
+            return participant;
+        }
+        return POOL.borrow();
+    }
+
+    static Connection borrowFromPool() throws SQLException {
+        return POOL.borrow();
+    }
+
+    public static PoolStats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    public static void shutdown() {
+        POOL.close();
     }
 }
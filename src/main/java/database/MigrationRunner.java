@@ -0,0 +1,186 @@
+package main.java.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// brings the database schema up to date when the application starts
+// the scripts live in src/main/resources/db/migration and are applied in the order of MIGRATIONS,
+// each applied script is written to schema_migrations with a checksum so a script that was changed after
+// it ran is reported instead of silently ignored
+public class MigrationRunner {
+
+    // add new scripts at the end, never change or remove one that was released
+    private static final String[] MIGRATIONS = {
+            "V1__baseline_schema.sql",
+            "V2__order_totals.sql",
+            "V3__query_indexes.sql",
+            "V4__stock_journal_checkpoint.sql",
+    };
+
+    // the resources sit next to the sources (src is the source root), so they are on the class path under main/resources
+    private static final String[] RESOURCE_DIRS = {"main/resources/db/migration/", "db/migration/"};
+
+    private static final String CREATE_LEDGER_SQL = "CREATE TABLE IF NOT EXISTS schema_migrations ("
+            + "version INT PRIMARY KEY, "
+            + "script VARCHAR(200) NOT NULL, "
+            + "checksum CHAR(64) NOT NULL, "
+            + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+    private static final String SELECT_APPLIED_SQL = "SELECT version, checksum FROM schema_migrations";
+    private static final String INSERT_APPLIED_SQL = "INSERT INTO schema_migrations (version, script, checksum) VALUES (?, ?, ?)";
+    // two instances starting at the same time must not run the same script twice
+    private static final String LOCK_SQL = "SELECT GET_LOCK('schema_migrations', 60)";
+    private static final String UNLOCK_SQL = "SELECT RELEASE_LOCK('schema_migrations')";
+
+    // MySQL errors that mean a statement was already applied by hand or by the old schema.sql
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    // returns the number of scripts that were applied
+    public static int migrate() {
+        try (Connection conn = DBConnection.getConnection()) {
+            lock(conn);
+            try {
+                return applyPending(conn);
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(UNLOCK_SQL);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Database migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static int applyPending(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_LEDGER_SQL);
+        }
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_APPLIED_SQL)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+
+        int count = 0;
+        for (String script : MIGRATIONS) {
+            int version = versionOf(script);
+            String sql = load(script);
+            String checksum = sha256(sql);
+
+            String appliedChecksum = applied.get(version);
+            if (appliedChecksum != null) {
+                if (!appliedChecksum.equals(checksum)) {
+                    throw new IllegalStateException("Migration " + script + " was changed after it was applied "
+                            + "(checksum " + appliedChecksum + " in schema_migrations, " + checksum + " now)");
+                }
+                continue;
+            }
+
+            // MySQL commits every DDL statement by itself, so a script is not atomic; the ledger row is only
+            // written after all its statements ran, and execute() skips the "already exists" errors of a second run
+            for (String statement : split(sql)) {
+                execute(conn, script, statement);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_APPLIED_SQL)) {
+                stmt.setInt(1, version);
+                stmt.setString(2, script);
+                stmt.setString(3, checksum);
+                stmt.executeUpdate();
+            }
+            System.out.println("Applied database migration " + script);
+            count++;
+        }
+        return count;
+    }
+
+    private static void execute(Connection conn, String script, String statement) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(statement);
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_DUP_FIELDNAME || e.getErrorCode() == ER_DUP_KEYNAME) {
+                System.out.println("Skipping already applied statement in " + script + ": " + e.getMessage());
+                return;
+            }
+            throw new SQLException("Failed in " + script + ": " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LOCK_SQL)) {
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new SQLException("Timed out waiting for another instance to finish migrating the database");
+            }
+        }
+    }
+
+    // statements end with ';' at the end of a line, lines starting with -- are comments
+    private static List<String> split(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String load(String script) {
+        ClassLoader loader = MigrationRunner.class.getClassLoader();
+        for (String dir : RESOURCE_DIRS) {
+            try (InputStream in = loader.getResourceAsStream(dir + script)) {
+                if (in != null) {
+                    // same checksum whether git checked the file out with \n or \r\n
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read migration " + script, e);
+            }
+        }
+        throw new IllegalStateException("Migration " + script + " is missing from the class path");
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
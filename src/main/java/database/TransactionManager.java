@@ -0,0 +1,142 @@
+package main.java.database;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+// unit of work for the DAOs: while a transaction is open on this thread DBConnection.getConnection()
+// returns the same connection, so every DAO call inside inTransaction(...) joins it without any change
+public class TransactionManager {
+
+    private static final ThreadLocal<TransactionState> CURRENT = new ThreadLocal<>();
+
+    // the open transaction of this thread
+    private static final class TransactionState {
+        private final Connection connection;
+        // a participant called rollback(), the owner must not commit what the others wrote
+        private boolean rollbackOnly;
+
+        private TransactionState(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T execute() throws SQLException;
+    }
+
+    // runs the work in one transaction, commits if it returns normally and rolls back on any exception
+    // nested calls simply join the outer transaction
+    public static <T> T inTransaction(TransactionCallback<T> work) throws SQLException {
+        if (CURRENT.get() != null) {
+            return work.execute();
+        }
+
+        Connection conn = DBConnection.borrowFromPool();
+        try {
+            conn.setAutoCommit(false);
+            TransactionState state = new TransactionState(conn);
+            CURRENT.set(state);
+
+            T result = work.execute();
+            if (state.rollbackOnly) {
+                // the participant swallowed its failure, committing would keep the half of the work that did run
+                throw new SQLException("Transaction was rolled back by one of its participants");
+            }
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            rollbackQuietly(conn, e);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                // the pool checks the state again when the connection comes back
+            }
+            conn.close();
+        }
+    }
+
+    // runs the work inside the open transaction but lets it fail on its own: on an exception only what it
+    // wrote is rolled back (to a savepoint) and the exception is thrown, the transaction itself stays usable
+    public static <T> T inSavepoint(TransactionCallback<T> work) throws SQLException {
+        TransactionState state = CURRENT.get();
+        if (state == null) {
+            throw new IllegalStateException("inSavepoint must be called inside inTransaction");
+        }
+        Connection conn = state.connection;
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            T result = work.execute();
+            conn.releaseSavepoint(savepoint);
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            try {
+                conn.rollback(savepoint);
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // the connection handed to DAOs inside a transaction, they may close it or try to commit
+    // it like they do on their own but the transaction owner decides when that really happens
+    static Connection currentParticipant() {
+        TransactionState state = CURRENT.get();
+        if (state == null) {
+            return null;
+        }
+        Connection conn = state.connection;
+        return (Connection) Proxy.newProxyInstance(
+                TransactionManager.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                        case "commit":
+                        case "setAutoCommit":
+                            return null;
+                        case "rollback":
+                            if (args == null) {
+                                // a participant failed, the owner rolls back everything even if the exception never reaches it
+                                state.rollbackOnly = true;
+                                return null;
+                            }
+                            break;
+                        case "getAutoCommit":
+                            return false;
+                        case "isClosed":
+                            return conn.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static void rollbackQuietly(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
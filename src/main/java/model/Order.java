@@ -13,6 +13,11 @@ public class Order {
     private String status;
     private LocalDateTime createdAt;
     private List<OrderItem> orderItems;
+    // stored with the order, so the total is known without loading the items
+    private long totalCents;
+    private int itemCount;
+    // false for an order built in memory, its totals come from the items until they are set
+    private boolean totalsStored;
 
     // default constructor
     public Order() {
@@ -63,6 +68,24 @@ public class Order {
         return orderItems;
     }
 
+    public long getTotalCents() {
+        if (!totalsStored && orderItems != null) {
+            long total = 0;
+            for (OrderItem item : orderItems) {
+                total += item.getPriceAtOrder() * item.getQuantity();
+            }
+            return total;
+        }
+        return totalCents;
+    }
+
+    public int getItemCount() {
+        if (!totalsStored && orderItems != null) {
+            return orderItems.size();
+        }
+        return itemCount;
+    }
+
     // setter functions
     public void setOrderId(UUID orderId) {
         this.orderId = orderId;
@@ -84,12 +107,19 @@ public class Order {
         this.orderItems = orderItems;
     }
 
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+        this.totalsStored = true;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+        this.totalsStored = true;
+    }
+
+    // in cents, same value as getTotalCents(), kept for the callers that expect a double
     public double getTotal() {
-        double total = 0;
-        for (OrderItem orderItem : orderItems) {
-            total += orderItem.getPriceAtOrder() * orderItem.getQuantity();
-        }
-        return total;
+        return getTotalCents();
     }
 
     @Override
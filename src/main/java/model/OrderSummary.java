@@ -0,0 +1,55 @@
+package main.java.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// what the order list screens show, the item count and total are computed by the database
+// so a list row does not need the order items at all
+public class OrderSummary {
+    private final UUID orderId;
+    private final LocalDateTime createdAt;
+    private final String status;
+    private final int itemCount;
+    private final long total;
+
+    public OrderSummary(UUID orderId, LocalDateTime createdAt, String status, int itemCount, long total) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.status = status;
+        this.itemCount = itemCount;
+        this.total = total;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    // number of order lines, not the sum of their quantities
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    // in cents like OrderItem.priceAtOrder
+    public long getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderSummary{" +
+                "orderId=" + orderId +
+                ", createdAt=" + createdAt +
+                ", status='" + status + '\'' +
+                ", itemCount=" + itemCount +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package main.java.model;
 
+import main.java.util.UuidGenerator;
+
 import java.io.Serializable;
 import java.util.UUID;
 
@@ -14,9 +16,18 @@ public class Product implements Serializable {
     public Product(){
 
     }
+    // copy constructor, the caches hand out copies so callers cannot change the cached product
+    public Product(Product other){
+        this.productId = other.productId;
+        this.name = other.name;
+        this.categoryId = other.categoryId;
+        this.price = other.price;
+        this.quantity = other.quantity;
+    }
+
     public Product(String name , UUID category , long price, int quantity){
 
-        this.productId = UUID.randomUUID();
+        this.productId = UuidGenerator.newId();
         this.categoryId = category;
         this.name = name;
         this.price = price;
@@ -3,13 +3,26 @@ package main.java.service;
 import main.java.dao.CategoryDAO;
 import main.java.model.Category;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public class CategoryService {
+    // how often we ask the database if another terminal changed the categories
+    private static final long VERSION_CHECK_INTERVAL_MS = 5_000;
+
     private final CategoryDAO categoryDAO;
 
+    // categories almost never change so we keep them in memory, version moves every time the list is reloaded
+    private volatile List<Category> categories;
+    private volatile Map<UUID, Category> categoriesById = new HashMap<>();
+    private volatile String dbFingerprint;
+    private volatile long version;
+    private volatile long lastCheckMillis;
+
     public CategoryService(CategoryDAO categoryDAO) {
         this.categoryDAO = categoryDAO;
     }
@@ -32,7 +45,9 @@ public class CategoryService {
             }
 
             category.setName(normalizedString);
-            return categoryDAO.save(category);
+            Category saved = categoryDAO.save(category);
+            reloadSnapshot();
+            return saved;
         } catch (SQLException e) {
             throw new RuntimeException("Database operation failed during category creation.", e);
         }
@@ -43,6 +58,11 @@ public class CategoryService {
             throw new IllegalArgumentException("Category uuid cannot be null");
         }
 
+        Category cached = categoriesById.get(uuid);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         try {
             return categoryDAO.findById(uuid);
         } catch (SQLException e) {
@@ -64,12 +84,57 @@ public class CategoryService {
 
     public List<Category> getAllCategories() {
         try {
-            return categoryDAO.findAll();
+            ensureFresh();
+            return categories;
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while fetching categories", e);
         }
     }
 
+    // panels compare this with the version they built their lookup map from and only rebuild when it moved
+    public long getCategoriesVersion() {
+        try {
+            ensureFresh();
+            return version;
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while checking categories version", e);
+        }
+    }
+
+    private void ensureFresh() throws SQLException {
+        if (categories == null) {
+            reloadSnapshot();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastCheckMillis < VERSION_CHECK_INTERVAL_MS) {
+            return;
+        }
+        lastCheckMillis = now;
+
+        if (!categoryDAO.findVersion().equals(dbFingerprint)) {
+            reloadSnapshot();
+        }
+    }
+
+    private synchronized void reloadSnapshot() throws SQLException {
+        // fingerprint first, if something changes while we read the list the next check reloads again
+        String fingerprint = categoryDAO.findVersion();
+        List<Category> loaded = categoryDAO.findAll();
+
+        Map<UUID, Category> byId = new HashMap<>();
+        for (Category category : loaded) {
+            byId.put(category.getCategoryId(), category);
+        }
+
+        categoriesById = byId;
+        categories = Collections.unmodifiableList(loaded);
+        dbFingerprint = fingerprint;
+        lastCheckMillis = System.currentTimeMillis();
+        version++;
+    }
+
     public void deleteCategory(UUID uuid) {
         if(uuid == null) {
             throw new IllegalArgumentException("Category uuid cannot be null");
@@ -77,6 +142,7 @@ public class CategoryService {
 
         try {
             categoryDAO.delete(uuid);
+            reloadSnapshot();
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while deleting category with ID: " + uuid, e);
         }
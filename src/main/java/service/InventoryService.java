@@ -7,7 +7,11 @@ import main.java.dao.ProductDAO;
 import main.java.model.Product;
 import main.java.model.Category;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,10 +21,19 @@ public class InventoryService {
     //were basically here using dependecy
     private final ProductDAO productDAO;
     private final CategoryService categoryService;
+    //products are served from here first, every write below has to invalidate what it changed
+    private final ProductCache productCache;
+    //name search for the POS, filled from the catalog and kept in step with every write below
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
 
     public InventoryService(ProductDAO productDAO, CategoryService categoryService) {
+        this(productDAO, categoryService, new ProductCache());
+    }
+
+    public InventoryService(ProductDAO productDAO, CategoryService categoryService, ProductCache productCache) {
         this.productDAO = productDAO;
         this.categoryService = categoryService;
+        this.productCache = productCache;
     }
 
     //we throw the sqlexception from the dao to service layer so this layer can know that there is an exception happening
@@ -44,7 +57,10 @@ public class InventoryService {
             product.setName(normalizedString);
 
             //this made me change return type from void to Product
-            return productDAO.save(product);
+            Product saved = productDAO.save(product);
+            productCache.invalidateCatalog();
+            searchIndex.put(saved);
+            return saved;
         } catch (SQLException e) {
             throw new RuntimeException("Database operation failed during product creation.", e);
         }
@@ -104,7 +120,10 @@ public class InventoryService {
                 }
             }
 
-            return productDAO.update(product);
+            Product updated = productDAO.update(product);
+            productCache.invalidate(product.getProductId());
+            searchIndex.put(updated);
+            return updated;
         }catch(SQLException e){
             throw new RuntimeException("A DB error prevented the product Update",e);
         }
@@ -122,6 +141,7 @@ public class InventoryService {
 
         try {
             productDAO.updateStock(productId, quantity);
+            productCache.invalidate(productId);
         } catch (SQLException e) {
             throw new RuntimeException("Database operation failed during product update.", e);
         }
@@ -144,19 +164,63 @@ public class InventoryService {
         if(productId == null){
             throw new IllegalArgumentException("Product Id cannot be null");
         }
+        Product cached = productCache.getById(productId);
+        if(cached != null){
+            return Optional.of(cached);
+        }
         try{
-            return productDAO.findByProductId(productId);
+            long generation = productCache.currentGeneration();
+            Optional<Product> product = productDAO.findByProductId(productId);
+            product.ifPresent(p -> productCache.put(p, generation));
+            return product;
         }catch(SQLException e){
             throw new RuntimeException("Database error occurred while fetching product with ID: " + productId, e);
         }
     }
 
+    public Map<UUID, Product> getProductsByIds(Collection<UUID> productIds) {
+        if(productIds == null){
+            throw new IllegalArgumentException("Product Ids cannot be null");
+        }
+        Map<UUID, Product> products = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for(UUID productId : productIds){
+            Product cached = productCache.getById(productId);
+            if(cached != null){
+                products.put(productId, cached);
+            }else{
+                missing.add(productId);
+            }
+        }
+        if(missing.isEmpty()){
+            return products;
+        }
+        try{
+            long generation = productCache.currentGeneration();
+            Map<UUID, Product> loaded = productDAO.findByProductIds(missing);
+            for(Product product : loaded.values()){
+                productCache.put(product, generation);
+            }
+            products.putAll(loaded);
+            return products;
+        }catch(SQLException e){
+            throw new RuntimeException("Database error occurred while fetching products by ID", e);
+        }
+    }
+
     public Optional<Product> getProductByName(String name){
         if(name == null || name.trim().isEmpty()){
             throw new IllegalArgumentException("name cannot be null");
         }
+        Product cached = productCache.getByName(name);
+        if(cached != null){
+            return Optional.of(cached);
+        }
         try{
-            return productDAO.findByProductName(name);
+            long generation = productCache.currentGeneration();
+            Optional<Product> product = productDAO.findByProductName(name);
+            product.ifPresent(p -> productCache.put(p, generation));
+            return product;
         }catch(SQLException e){
             throw new RuntimeException("DataBase occurred while getting product:"+name);
         }
@@ -171,17 +235,69 @@ public class InventoryService {
                 throw new IllegalArgumentException("Cannot delete Product , product with "+uuid + "cannot be found");
             }
             productDAO.delete(uuid);
+            productCache.invalidate(uuid);
+            searchIndex.remove(uuid);
 
         }catch(SQLException e){
             throw new RuntimeException("DataBase error occurred while deleting Product:"+uuid,e);
         }
     }
     
+    //the returned list comes from the cache when nothing changed since the last load, do not modify it
     public List<Product> getAllProducts(){
+        List<Product> cached = productCache.getCatalog();
+        if(cached != null){
+            return cached;
+        }
         try{
-            return productDAO.findAll();
+            long generation = productCache.currentGeneration();
+            List<Product> products = productDAO.findAll();
+            productCache.putCatalog(products, generation);
+            searchIndex.replaceAll(products);
+            return products;
         }catch(SQLException e){
             throw new RuntimeException("DataBase error occurred while fetching all products");
         }
     }
+
+    //drops everything cached and reads the catalog again, used by the refresh button to pick up changes from other terminals
+    public List<Product> refreshProducts(){
+        productCache.clear();
+        return getAllProducts();
+    }
+
+    //true once the catalog was read, from then on searchProducts never goes to the database
+    public boolean isProductSearchReady(){
+        return searchIndex.isLoaded();
+    }
+
+    //type-ahead search by name, names starting with the text first then names containing it, served from memory
+    //before the first catalog load it loads the catalog itself, the UI checks isProductSearchReady() so that never happens on the EDT
+    public List<Product> searchProducts(String text, int limit){
+        if(text == null){
+            throw new IllegalArgumentException("search text cannot be null");
+        }
+        if(!searchIndex.isLoaded()){
+            getAllProducts();
+        }
+        return searchIndex.search(text, limit);
+    }
+
+    //called when the application closes so buffered stock changes reach the database
+    public void shutdown(){
+        try{
+            productDAO.close();
+        }catch(SQLException e){
+            //they are still in the stock journal and written on the next start
+            System.err.println("Could not write buffered stock changes on shutdown: " + e.getMessage());
+        }
+    }
+
+    public long getCacheHitCount(){
+        return productCache.getHitCount();
+    }
+
+    public long getCacheMissCount(){
+        return productCache.getMissCount();
+    }
 }
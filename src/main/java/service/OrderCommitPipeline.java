@@ -0,0 +1,230 @@
+package main.java.service;
+
+import main.java.database.TransactionManager;
+import main.java.model.OrderItem;
+import main.java.util.EnvConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// group commit for placing orders: orders that arrive at about the same time are written by one committer
+// thread in one transaction, so the database does one commit (and one log flush) for the whole batch
+// every order runs in its own savepoint, an order that fails (out of stock, unknown product) is rolled back
+// alone and only its caller gets the error; if the batch hit a deadlock or lock wait timeout while writing, its
+// orders are retried one by one, any other failure (a failed commit may still have written the batch) fails them all
+// a batch is closed when it has maxBatch orders or maxWaitMillis passed since its first order arrived,
+// orders that queue up while a batch is committing go into the next one without any extra wait
+public class OrderCommitPipeline {
+
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private final OrderService orderService;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    private static final class PendingOrder {
+        private final UUID userId;
+        private final List<OrderItem> cartItems;
+        // null when the cart did not reserve stock
+        private final UUID cartId;
+        private final CompletableFuture<UUID> result = new CompletableFuture<>();
+
+        // outcome inside the current batch, only read after the batch committed
+        private UUID orderId;
+        private IllegalArgumentException failure;
+
+        private PendingOrder(UUID userId, List<OrderItem> cartItems, UUID cartId) {
+            this.userId = userId;
+            this.cartItems = cartItems;
+            this.cartId = cartId;
+        }
+    }
+
+    public OrderCommitPipeline(OrderService orderService, int maxBatch, long maxWaitMillis) {
+        if (maxBatch <= 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Order batch size must be positive and the wait time not negative");
+        }
+        this.orderService = orderService;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.committer = new Thread(this::run, "order-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    // null unless ORDER_GROUP_COMMIT=true, then orders are placed directly like before
+    public static OrderCommitPipeline fromEnvironment(OrderService orderService) {
+        if (!"true".equalsIgnoreCase(System.getenv("ORDER_GROUP_COMMIT"))) {
+            return null;
+        }
+        return new OrderCommitPipeline(orderService,
+                EnvConfig.readInt("ORDER_BATCH_MAX", 32),
+                EnvConfig.readInt("ORDER_BATCH_WAIT_MS", 2));
+    }
+
+    // completes with the new order id, or with the same exceptions placeOrder throws
+    public CompletableFuture<UUID> submit(UUID userId, List<OrderItem> cartItems, UUID cartId) {
+        if (userId == null || cartItems == null || cartItems.isEmpty()) {
+            throw new IllegalArgumentException("User ID and Cart Items must be provided to place an order.");
+        }
+        PendingOrder order = new PendingOrder(userId, cartItems, cartId);
+        if (!running) {
+            order.result.completeExceptionally(new RejectedExecutionException("Orders are no longer accepted, the application is closing."));
+            return order.result;
+        }
+        queue.add(order);
+        return order.result;
+    }
+
+    // stops taking orders and waits for the queued ones to be written
+    public boolean shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            committer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // only left if the committer did not finish in time
+        List<PendingOrder> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (PendingOrder order : left) {
+            order.result.completeExceptionally(new RejectedExecutionException("Order was not placed before shutdown."));
+        }
+        return left.isEmpty() && !committer.isAlive();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<PendingOrder> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // an Error (out of memory, a missing class) must not end this thread, the orders queued
+                    // after this batch would wait forever; the callers still waiting are told it failed
+                    RuntimeException failure = new RuntimeException("Failed to complete order transaction, its outcome is unknown.", e);
+                    for (PendingOrder order : batch) {
+                        order.result.completeExceptionally(failure);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<PendingOrder> nextBatch() throws InterruptedException {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        PendingOrder first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatch - batch.size());
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatch && running) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                break;
+            }
+            PendingOrder next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatch - batch.size());
+        }
+        return batch;
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        // the error that ended the callback, anything else (mostly the commit itself) leaves the outcome unknown
+        Exception[] callbackFailure = new Exception[1];
+        try {
+            orderService.flushBufferedStock();
+            TransactionManager.inTransaction(() -> {
+                try {
+                    for (PendingOrder order : batch) {
+                        order.orderId = null;
+                        order.failure = null;
+                        try {
+                            order.orderId = TransactionManager.inSavepoint(() -> orderService.writeOrder(order.userId, order.cartItems));
+                        } catch (IllegalArgumentException e) {
+                            // business error of this order only, the savepoint already took back its writes
+                            order.failure = e;
+                        }
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    callbackFailure[0] = e;
+                    throw e;
+                }
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            // a deadlock or lock wait timeout while writing rolled the whole batch back, nothing of it was committed,
+            // placing the orders one by one gives every caller its own result
+            if (e == callbackFailure[0] && isLockConflict(e) && batch.size() > 1) {
+                for (PendingOrder order : batch) {
+                    placeAlone(order);
+                }
+                return;
+            }
+            // any other error, above all a failed commit (lost connection), may come after the batch was
+            // written, placing the orders again could write them twice so every caller gets the error
+            RuntimeException failure = e instanceof RuntimeException ? (RuntimeException) e
+                    : new RuntimeException("Failed to complete order transaction due to database error.", e);
+            for (PendingOrder order : batch) {
+                order.result.completeExceptionally(failure);
+            }
+            return;
+        }
+
+        for (PendingOrder order : batch) {
+            if (order.failure != null) {
+                order.result.completeExceptionally(order.failure);
+            } else {
+                orderService.orderCommitted(order.cartItems);
+                orderService.releaseStock(order.cartId);
+                order.result.complete(order.orderId);
+            }
+        }
+    }
+
+    // SQLState 40001 (serialization failure) or MySQL 1213 (deadlock) / 1205 (lock wait timeout),
+    // the DAOs and services may have wrapped it in other exceptions
+    private static boolean isLockConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if ("40001".equals(sql.getSQLState()) || sql.getErrorCode() == 1213 || sql.getErrorCode() == 1205) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void placeAlone(PendingOrder order) {
+        try {
+            order.result.complete(order.cartId == null
+                    ? orderService.placeOrder(order.userId, order.cartItems)
+                    : orderService.placeOrder(order.userId, order.cartItems, order.cartId));
+        } catch (RuntimeException e) {
+            order.result.completeExceptionally(e);
+        }
+    }
+}
@@ -4,28 +4,54 @@ import main.java.dao.OrderDAO;
 import main.java.dao.OrderItemDAO;
 import main.java.dao.ProductDAO; // نحتاج ProductDAO للتحقق من المخزون وتحديثه
 import main.java.dao.UserDAO;     // نحتاج UserDAO للتحقق من وجود المستخدم
+import main.java.database.TransactionManager;
 import main.java.model.Order;
 import main.java.model.OrderItem;
+import main.java.model.OrderSummary;
 import main.java.model.Product;
 import main.java.model.User;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class OrderService {
 
+    // shorter codes match too many orders to be useful
+    private static final int MIN_ORDER_CODE_LENGTH = 4;
+    private static final int MAX_CODE_MATCHES = 20;
+
     private final OrderDAO orderDAO;
     private final OrderItemDAO orderItemDAO;
     private final ProductDAO productDAO;
     private final UserDAO userDAO;
+    // shared with InventoryService, placing an order changes stock so the cached products must be dropped
+    private final ProductCache productCache;
+    // stock held by the carts on the POS terminals, given back once their order is placed
+    private final StockReservationService stockReservations;
 
     public OrderService(OrderDAO orderDAO, OrderItemDAO orderItemDAO, ProductDAO productDAO, UserDAO userDAO) {
+        this(orderDAO, orderItemDAO, productDAO, userDAO, new ProductCache());
+    }
+
+    public OrderService(OrderDAO orderDAO, OrderItemDAO orderItemDAO, ProductDAO productDAO, UserDAO userDAO, ProductCache productCache) {
+        this(orderDAO, orderItemDAO, productDAO, userDAO, productCache, new StockReservationService(productDAO, productCache));
+    }
+
+    public OrderService(OrderDAO orderDAO, OrderItemDAO orderItemDAO, ProductDAO productDAO, UserDAO userDAO,
+                        ProductCache productCache, StockReservationService stockReservations) {
         this.orderDAO = orderDAO;
         this.orderItemDAO = orderItemDAO;
         this.productDAO = productDAO;
         this.userDAO = userDAO;
+        this.productCache = productCache;
+        this.stockReservations = stockReservations;
     }
 
     public Optional<Order> findOrderById(UUID orderId) {
@@ -39,6 +65,66 @@ public class OrderService {
         }
     }
 
+    // hands every order of the range (with its items) to action, oldest first, reading one page at a time
+    public void forEachOrderInDateRange(LocalDateTime start, LocalDateTime end, Consumer<? super Order> action) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new IllegalArgumentException("A valid date range is required.");
+        }
+        try {
+            orderDAO.forEachInDateRange(start, end, action);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while reading orders between " + start + " and " + end, e);
+        }
+    }
+
+    public int countOrders() {
+        try {
+            return orderDAO.countAll();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while counting orders", e);
+        }
+    }
+
+    // looks up orders by their short code (see UuidGenerator.shortCode) or any other start of the id
+    public List<Order> findOrdersByIdPrefix(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Order code cannot be empty.");
+        }
+        String hex = code.trim().replace("-", "").toLowerCase();
+        if (hex.length() < MIN_ORDER_CODE_LENGTH || hex.length() > 32 || !hex.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Order code must be " + MIN_ORDER_CODE_LENGTH
+                    + " to 32 hexadecimal characters, for example the order code shown in the history list.");
+        }
+        try {
+            return orderDAO.findByIdPrefix(hex, MAX_CODE_MATCHES);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while searching orders by code " + code, e);
+        }
+    }
+
+    // one page of the newest first order history, see OrderDAO.findSummaries
+    public List<OrderSummary> findOrderSummaries(LocalDateTime fromCreatedAt, UUID fromOrderId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        try {
+            return orderDAO.findSummaries(fromCreatedAt, fromOrderId, limit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while fetching a page of orders", e);
+        }
+    }
+
+    public Optional<Order> findOrderAtPosition(int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position cannot be negative.");
+        }
+        try {
+            return orderDAO.findByPosition(position);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while fetching order at position " + position, e);
+        }
+    }
+
     public void deleteOrder(UUID orderId) {
         if (orderId == null) {
             throw new IllegalArgumentException("Order ID cannot be null for deletion.");
@@ -58,60 +144,126 @@ public class OrderService {
         }
     }
 
+    // holds stock for an item while it sits in the cart, fails right away when the other carts already hold the rest
+    public void reserveStock(UUID cartId, UUID productId, int quantity) {
+        stockReservations.reserve(cartId, productId, quantity);
+    }
+
+    public void releaseStock(UUID cartId) {
+        stockReservations.release(cartId);
+    }
+
+    public int getAvailableToSell(UUID productId) {
+        return stockReservations.getAvailableToSell(productId);
+    }
+
+    // places the order of a cart that reserved its stock, the holds are given back once the stock was really taken
+    // on failure they are kept so the cashier can fix the cart and try again
+    public UUID placeOrder(UUID userId, List<OrderItem> cartItems, UUID cartId) {
+        UUID orderId = placeOrder(userId, cartItems);
+        stockReservations.release(cartId);
+        return orderId;
+    }
+
     public UUID placeOrder(UUID userId, List<OrderItem> cartItems) {
         if (userId == null || cartItems == null || cartItems.isEmpty()) {
             throw new IllegalArgumentException("User ID and Cart Items must be provided to place an order.");
         }
 
         try {
-            Optional<User> userOpt = userDAO.findUserById(userId);
-            if (userOpt.isEmpty()) {
-                throw new IllegalArgumentException("User with ID " + userId + " not found.");
-            }
+            // buffered stock changes are written with a connection of their own, do it before this thread holds one
+            productDAO.flush();
+
+            // everything below runs on one connection and is committed once, if any step fails nothing is written
+            UUID orderId = TransactionManager.inTransaction(() -> writeOrder(userId, cartItems));
+
+            orderCommitted(cartItems);
+            return orderId;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to complete order transaction due to database error.", e);
+        }
+    }
 
-            for (OrderItem item : cartItems) {
-                Optional<Product> productOpt = productDAO.findByProductId(item.getProductId());
+    // the statements of one order, the caller owns the transaction (placeOrder, or OrderCommitPipeline for many orders)
+    UUID writeOrder(UUID userId, List<OrderItem> cartItems) throws SQLException {
+        if (userId == null || cartItems == null || cartItems.isEmpty()) {
+            throw new IllegalArgumentException("User ID and Cart Items must be provided to place an order.");
+        }
+        List<UUID> productIds = new ArrayList<>();
+        for (OrderItem item : cartItems) {
+            productIds.add(item.getProductId());
+        }
 
-                if (productOpt.isEmpty()) {
-                    throw new IllegalArgumentException("Product ID " + item.getProductId() + " not found.");
-                }
+        Optional<User> userOpt = userDAO.findUserById(userId);
+        if (userOpt.isEmpty()) {
+            throw new IllegalArgumentException("User with ID " + userId + " not found.");
+        }
 
-                Product product = productOpt.get();
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        Map<UUID, String> productNames = new HashMap<>();
 
-                if (product.getQuantity() < item.getQuantity()) {
-                    throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
-                            ". Available: " + product.getQuantity() +
-                            ", Requested: " + item.getQuantity());
-                }
+        Map<UUID, Product> products = productDAO.findByProductIds(productIds);
+        long totalCents = 0;
 
-                item.setPriceAtOrder(product.getPrice());
-                item.setOrderId(UUID.randomUUID());
+        for (OrderItem item : cartItems) {
+            Product product = products.get(item.getProductId());
+
+            if (product == null) {
+                throw new IllegalArgumentException("Product ID " + item.getProductId() + " not found.");
             }
 
-            Order newOrder = new Order(null, userId, "PENDING", LocalDateTime.now());
-            newOrder = orderDAO.save(newOrder);
-            UUID finalOrderId = newOrder.getOrderId();
+            item.setPriceAtOrder(product.getPrice());
+            totalCents += product.getPrice() * item.getQuantity();
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            productNames.put(product.getProductId(), product.getName());
+        }
 
-            for (OrderItem item : cartItems) {
-                item.setOrderId(finalOrderId);
+        // the stock check is done by the database in the same statement as the decrement,
+        // checking the quantity we read above and decrementing later would let two terminals oversell
+        List<UUID> outOfStock = productDAO.decrementStockIfAvailable(quantities);
+        if (!outOfStock.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (UUID productId : outOfStock) {
+                names.add(productNames.get(productId) + " (Requested: " + quantities.get(productId) + ")");
             }
+            throw new IllegalArgumentException("Insufficient stock for product(s): " + String.join(", ", names));
+        }
 
-            orderItemDAO.saveAll(cartItems);
+        // the order is only visible after commit so it can be written as PROCESSING directly
+        Order newOrder = new Order(null, userId, "PROCESSING", LocalDateTime.now());
+        // stored with the order so list screens never have to add up the items
+        newOrder.setTotalCents(totalCents);
+        newOrder.setItemCount(cartItems.size());
+        newOrder.setOrderItems(cartItems);
+        newOrder = orderDAO.save(newOrder);
+        UUID finalOrderId = newOrder.getOrderId();
 
-            for (OrderItem item : cartItems) {
-                productDAO.updateStock(item.getProductId(), item.getQuantity() * -1);
-            }
+        for (OrderItem item : cartItems) {
+            item.setOrderId(finalOrderId);
+        }
 
-            newOrder.setStatus("PROCESSING");
-            orderDAO.update(newOrder);
+        orderItemDAO.saveAll(cartItems);
 
-            return finalOrderId;
+        return finalOrderId;
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to complete order transaction due to database error.", e);
-        } catch (IllegalArgumentException e) {
-            throw e;
+    // after the commit the stock of these products changed, the cached copies are dropped
+    void orderCommitted(List<OrderItem> cartItems) {
+        List<UUID> productIds = new ArrayList<>();
+        for (OrderItem item : cartItems) {
+            productIds.add(item.getProductId());
         }
+        productCache.invalidateAll(productIds);
+    }
+
+    // see placeOrder, for callers that open their own transaction around writeOrder
+    void flushBufferedStock() throws SQLException {
+        productDAO.flush();
+    }
+
+    public void shutdown() {
+        stockReservations.shutdown();
     }
 
     //added the two getters
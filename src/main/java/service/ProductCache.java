@@ -0,0 +1,153 @@
+package main.java.service;
+
+import main.java.model.Product;
+import main.java.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// in memory copy of the products so the panels do not run SELECT * FROM products on every refresh
+// it is shared by InventoryService and OrderService, every write to products has to invalidate it
+public class ProductCache {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final LruCache<UUID, Product> byId;
+    // secondary index, product name (lower case like we store it) -> product id
+    private final Map<String, UUID> idByName = new ConcurrentHashMap<>();
+
+    // the whole catalog as returned by the last findAll, null when it has to be loaded again
+    private volatile List<Product> catalog;
+    // bumped on every invalidation so a load that raced with a write does not store old data
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+    private final AtomicLong nameMisses = new AtomicLong();
+
+    public ProductCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ProductCache(int maxSize) {
+        this.byId = new LruCache<>(maxSize, (id, product) -> idByName.remove(product.getName(), id));
+    }
+
+    // returns a copy so callers can change it without touching the cached one, null on a miss
+    public Product getById(UUID productId) {
+        Product product = byId.get(productId);
+        return product == null ? null : new Product(product);
+    }
+
+    public Product getByName(String name) {
+        UUID productId = idByName.get(name);
+        if (productId == null) {
+            nameMisses.incrementAndGet();
+            return null;
+        }
+        return getById(productId);
+    }
+
+    // read only list of the cached catalog, null on a miss
+    public List<Product> getCatalog() {
+        List<Product> current = catalog;
+        if (current == null) {
+            catalogMisses.incrementAndGet();
+        } else {
+            catalogHits.incrementAndGet();
+        }
+        return current;
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void put(Product product, long loadedAtGeneration) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (generation.get() != loadedAtGeneration) {
+                return;
+            }
+            index(product);
+        }
+    }
+
+    // stores a full catalog read, ignored if something was invalidated while it was being loaded
+    public void putCatalog(List<Product> products, long loadedAtGeneration) {
+        synchronized (this) {
+            if (generation.get() != loadedAtGeneration) {
+                return;
+            }
+            for (Product product : products) {
+                index(product);
+            }
+            catalog = Collections.unmodifiableList(new ArrayList<>(products));
+        }
+    }
+
+    public void invalidate(UUID productId) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            catalog = null;
+            Product removed = byId.remove(productId);
+            if (removed != null) {
+                idByName.remove(removed.getName(), productId);
+            }
+        }
+    }
+
+    public void invalidateAll(Collection<UUID> productIds) {
+        synchronized (this) {
+            for (UUID productId : productIds) {
+                invalidate(productId);
+            }
+        }
+    }
+
+    // a new product does not touch any cached entry, only the catalog list is outdated
+    public void invalidateCatalog() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            catalog = null;
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            catalog = null;
+            byId.clear();
+            idByName.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return byId.getHitCount() + catalogHits.get();
+    }
+
+    public long getMissCount() {
+        return byId.getMissCount() + catalogMisses.get() + nameMisses.get();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private void index(Product product) {
+        Product old = byId.remove(product.getProductId());
+        if (old != null) {
+            idByName.remove(old.getName(), old.getProductId());
+        }
+        byId.put(product.getProductId(), product);
+        idByName.put(product.getName(), product.getProductId());
+    }
+}
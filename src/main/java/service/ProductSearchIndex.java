@@ -0,0 +1,214 @@
+package main.java.service;
+
+import main.java.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// in memory search over product names for the POS type-ahead
+// names starting with the query come first (sorted map), then names containing it somewhere (trigram index)
+// it is kept up to date by InventoryService on every product write, so a search never goes to the database
+public class ProductSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // everything below is guarded by lock
+    private final Map<UUID, Product> productsById = new HashMap<>();
+    // the lower case name of every product, worked out once when it is indexed and not on every comparison
+    private final Map<UUID, String> keysById = new HashMap<>();
+    // lower case name -> id, names are unique like in the products table
+    private final TreeMap<String, UUID> idsByName = new TreeMap<>();
+    // every 3 character piece of a name -> ids of the products whose name contains it
+    private final Map<String, Set<UUID>> idsByTrigram = new HashMap<>();
+    private boolean loaded;
+
+    // replaces the whole index, used after the catalog was read from the database
+    public void replaceAll(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            productsById.clear();
+            keysById.clear();
+            idsByName.clear();
+            idsByTrigram.clear();
+            for (Product product : products) {
+                add(product);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // adds a product or updates it, a changed name moves it in the index
+    public void put(Product product) {
+        if (product == null || product.getProductId() == null || product.getName() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getProductId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // at most limit products, copies so the caller can keep them
+    public List<Product> search(String query, int limit) {
+        String q = normalize(query);
+        List<Product> result = new ArrayList<>();
+        if (q.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<UUID> matches = new LinkedHashSet<>();
+            // prefix matches, in name order
+            for (UUID id : idsByName.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+                if (matches.size() >= limit) {
+                    break;
+                }
+                matches.add(id);
+            }
+            // then names that contain the query further in, only the products sharing every trigram are checked
+            if (matches.size() < limit && q.length() >= GRAM) {
+                matches.addAll(containing(q, matches, limit - matches.size()));
+            }
+            for (UUID id : matches) {
+                result.add(new Product(productsById.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return productsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the first max products (by name) whose name contains q and that are not in skip
+    // the candidates are the products having all the trigrams of q, walked from the smallest posting list,
+    // and only the best max of them are kept in a bounded heap instead of sorting them all
+    private List<UUID> containing(String q, Set<UUID> skip, int max) {
+        List<Set<UUID>> postings = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            Set<UUID> ids = idsByTrigram.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            postings.add(ids);
+        }
+        postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Comparator<UUID> byName = Comparator.comparing(keysById::get);
+        // the head is the worst name kept so far
+        PriorityQueue<UUID> best = new PriorityQueue<>(max + 1, byName.reversed());
+        for (UUID id : postings.get(0)) {
+            if (skip.contains(id)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(id);
+            }
+            if (!inAll || !keysById.get(id).contains(q)) {
+                continue;
+            }
+            if (best.size() < max) {
+                best.add(id);
+            } else if (byName.compare(id, best.peek()) < 0) {
+                best.poll();
+                best.add(id);
+            }
+        }
+
+        // the sets are hash ordered, the result is in name order so it does not jump around between keystrokes
+        List<UUID> result = new ArrayList<>(best);
+        result.sort(byName);
+        return result;
+    }
+
+    private void add(Product product) {
+        Product copy = new Product(product);
+        String key = keyOf(copy);
+        productsById.put(copy.getProductId(), copy);
+        keysById.put(copy.getProductId(), key);
+        idsByName.put(key, copy.getProductId());
+        for (String gram : trigrams(key)) {
+            idsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(copy.getProductId());
+        }
+    }
+
+    private void removeLocked(UUID productId) {
+        Product old = productsById.remove(productId);
+        if (old == null) {
+            return;
+        }
+        String key = keysById.remove(productId);
+        idsByName.remove(key, productId);
+        for (String gram : trigrams(key)) {
+            Set<UUID> ids = idsByTrigram.get(gram);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    idsByTrigram.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // the index keys are lower case names, searches ignore case the same way
+    private static String keyOf(Product product) {
+        return normalize(product.getName());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+}
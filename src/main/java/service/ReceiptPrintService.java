@@ -0,0 +1,257 @@
+package main.java.service;
+
+import main.java.model.Order;
+import main.java.util.EnvConfig;
+import main.java.util.OrderReceiptPrinter;
+import main.java.util.ReceiptJournal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// writes receipts on a few worker threads instead of starting a new thread per receipt
+// with RECEIPT_ARCHIVE=journal the receipts are appended to a ReceiptJournal instead of one file per order
+// at most workers + queueLimit receipts are waiting at any time: single prints fail when that is reached,
+// a batch reprint waits for a free slot, so printing a whole day never holds more than that in memory
+public class ReceiptPrintService {
+
+    private final OrderService orderService;
+    // null when receipts are written as separate files
+    private final ReceiptJournal journal;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    // feeds batch reprints into the workers, one batch at a time
+    private final ExecutorService batchExecutor;
+    private volatile boolean shuttingDown;
+
+    // what print() did, a receipt that is already in the journal is not written again
+    public static final class PrintResult {
+        private final boolean printed;
+        // the receipt file name, or its place in the journal
+        private final String location;
+
+        private PrintResult(boolean printed, String location) {
+            this.printed = printed;
+            this.location = location;
+        }
+
+        public boolean isPrinted() {
+            return printed;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+    }
+
+    public ReceiptPrintService(OrderService orderService) {
+        this(orderService,
+                EnvConfig.readInt("RECEIPT_WORKERS", 2),
+                EnvConfig.readInt("RECEIPT_QUEUE_LIMIT", 256),
+                openJournal());
+    }
+
+    public ReceiptPrintService(OrderService orderService, int workers, int queueLimit, ReceiptJournal journal) {
+        if (workers <= 0 || queueLimit <= 0) {
+            throw new IllegalArgumentException("Receipt workers and queue limit must be positive");
+        }
+        this.orderService = orderService;
+        this.journal = journal;
+        this.slots = new Semaphore(workers + queueLimit);
+
+        AtomicInteger counter = new AtomicInteger();
+        // the semaphore already bounds the work, the queue itself never holds more than queueLimit
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "receipt-printer-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.batchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "receipt-batch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // completes with what was done, fails right away if too many receipts are waiting
+    public CompletableFuture<PrintResult> print(UUID orderId) {
+        if (journal != null && journal.contains(orderId)) {
+            return CompletableFuture.completedFuture(new PrintResult(false, "receipt journal"));
+        }
+        if (shuttingDown || !slots.tryAcquire()) {
+            CompletableFuture<PrintResult> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("Too many receipts are being printed, try again."));
+            return rejected;
+        }
+        return execute(() -> {
+            Optional<Order> order = orderService.findOrderById(orderId);
+            if (order.isEmpty()) {
+                throw new IllegalArgumentException("Order not found with ID: " + orderId);
+            }
+            return order.get();
+        }).thenApply(location -> new PrintResult(true, location));
+    }
+
+    // reprints every receipt of the orders created between start and end
+    // completes with the number of receipts written once all of them are done
+    public CompletableFuture<Integer> printAllForDateRange(LocalDateTime start, LocalDateTime end) {
+        if (shuttingDown) {
+            CompletableFuture<Integer> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("Receipt printing is shutting down."));
+            return rejected;
+        }
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        AtomicInteger printed = new AtomicInteger();
+        // receipts still being written, plus one for the reading below, the last one to finish completes the result
+        AtomicInteger pending = new AtomicInteger(1);
+        Runnable finishOne = () -> {
+            if (pending.decrementAndGet() == 0) {
+                result.complete(printed.get());
+            }
+        };
+
+        try {
+            batchExecutor.execute(() -> {
+                try {
+                    // the orders are read a page at a time, so the batch never holds more than one page plus the queued receipts
+                    orderService.forEachOrderInDateRange(start, end, order -> {
+                        if (shuttingDown) {
+                            throw new StopBatch();
+                        }
+                        try {
+                            // waits here while the workers are busy, this is what keeps a big batch from flooding them
+                            slots.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new StopBatch();
+                        }
+                        pending.incrementAndGet();
+                        execute(() -> order).whenComplete((fileName, error) -> {
+                            if (error == null) {
+                                printed.incrementAndGet();
+                            }
+                            finishOne.run();
+                        });
+                    });
+                } catch (StopBatch e) {
+                    // shutting down, the receipts already queued are still written
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                finishOne.run();
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // the receipt text of an order, read from the journal when it is archived there, otherwise rendered from the database
+    public String getReceiptText(UUID orderId) {
+        if (journal != null) {
+            try {
+                Optional<String> archived = journal.read(orderId);
+                if (archived.isPresent()) {
+                    return archived.get();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read the archived receipt of order: " + orderId, e);
+            }
+        }
+        Order order = orderService.findOrderById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+        return OrderReceiptPrinter.render(order, order.getOrderItems());
+    }
+
+    // stops taking new receipts and waits (up to timeoutMillis) for the ones already queued to be written
+    // returns false if some were still not written when the time ran out, or the journal could not be closed
+    public boolean shutdown(long timeoutMillis) {
+        shuttingDown = true;
+        batchExecutor.shutdownNow();
+        executor.shutdown();
+        boolean finished;
+        try {
+            finished = executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (journal != null && finished) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return finished;
+    }
+
+    // the caller must already hold a slot, it is given back when the receipt is done
+    private CompletableFuture<String> execute(OrderLoader loader) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    Order order = loader.load();
+                    if (journal != null) {
+                        future.complete(journal.append(order.getOrderId(), OrderReceiptPrinter.render(order, order.getOrderItems())));
+                    } else {
+                        future.complete(new OrderReceiptPrinter(order, order.getOrderItems()).print());
+                    }
+                } catch (Throwable e) {
+                    // the caller reports it, single prints to the cashier and batches in their count
+                    future.completeExceptionally(e);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private interface OrderLoader {
+        Order load() throws Exception;
+    }
+
+    // thrown from inside the order scan to stop a batch when the service shuts down
+    private static final class StopBatch extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StopBatch() {
+            super(null, null, false, false);
+        }
+    }
+
+    // the journal configured by RECEIPT_ARCHIVE, RECEIPT_JOURNAL_DIR, RECEIPT_SEGMENT_MB and RECEIPT_JOURNAL_GZIP
+    // null (one file per receipt, as before) unless RECEIPT_ARCHIVE=journal
+    private static ReceiptJournal openJournal() {
+        if (!"journal".equalsIgnoreCase(System.getenv("RECEIPT_ARCHIVE"))) {
+            return null;
+        }
+        String dir = System.getenv("RECEIPT_JOURNAL_DIR");
+        boolean compress = !"false".equalsIgnoreCase(System.getenv("RECEIPT_JOURNAL_GZIP"));
+        try {
+            return new ReceiptJournal(Paths.get(dir == null || dir.trim().isEmpty() ? "receipts" : dir.trim()),
+                    EnvConfig.readInt("RECEIPT_SEGMENT_MB", 64) * 1024L * 1024L, compress);
+        } catch (IOException e) {
+            // writing files instead would quietly split the archive in two
+            throw new RuntimeException("Could not open the receipt journal: " + e.getMessage(), e);
+        }
+    }
+}
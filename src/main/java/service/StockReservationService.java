@@ -0,0 +1,176 @@
+package main.java.service;
+
+import main.java.dao.ProductDAO;
+import main.java.model.Product;
+import main.java.util.EnvConfig;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// holds stock for the items sitting in a POS cart so two terminals cannot sell the same last units
+// every product has one reserved counter that is only changed with compare-and-set, a hold belongs to a cart
+// and is given back when the cart is cleared, when the order is placed or when nobody touched the cart for ttl
+// the holds only live in this process, placeOrder still checks the stock in the database when it decrements it
+public class StockReservationService {
+
+    private static final long DEFAULT_TTL_SECONDS = 15 * 60;
+    private static final long SWEEP_INTERVAL_SECONDS = 30;
+
+    private final ProductDAO productDAO;
+    // shared with the other services, gives the stock on hand without going to the database
+    private final ProductCache productCache;
+    private final long ttlMillis;
+
+    // product id -> units held by all carts together
+    private final Map<UUID, AtomicInteger> reservedByProduct = new ConcurrentHashMap<>();
+    private final Map<UUID, CartHold> holdsByCart = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    // the holds of one cart, a cart is used by one terminal so the lock here is never contended
+    private static final class CartHold {
+        private final Map<UUID, Integer> quantities = new HashMap<>();
+        private long expiresAt;
+        // set once the holds were given back, a reserve that still sees this cart has to start a new one
+        private boolean closed;
+    }
+
+    public StockReservationService(ProductDAO productDAO, ProductCache productCache) {
+        this(productDAO, productCache, EnvConfig.readLong("STOCK_HOLD_TTL_SECONDS", DEFAULT_TTL_SECONDS) * 1000);
+    }
+
+    public StockReservationService(ProductDAO productDAO, ProductCache productCache, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Stock hold TTL must be positive");
+        }
+        this.productDAO = productDAO;
+        this.productCache = productCache;
+        this.ttlMillis = ttlMillis;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-hold-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::releaseExpired,
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // holds quantity more units of the product for the cart, throws when not enough are left to sell
+    public void reserve(UUID cartId, UUID productId, int quantity) {
+        if (cartId == null || productId == null) {
+            throw new IllegalArgumentException("Cart ID and Product ID cannot be null.");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        Product product = loadProduct(productId);
+        AtomicInteger reserved = reservedByProduct.computeIfAbsent(productId, id -> new AtomicInteger());
+
+        while (true) {
+            CartHold cart = holdsByCart.computeIfAbsent(cartId, id -> new CartHold());
+            synchronized (cart) {
+                if (cart.closed) {
+                    // released by the sweeper or by another call right now, the next loop makes a new one
+                    holdsByCart.remove(cartId, cart);
+                    continue;
+                }
+                int current;
+                do {
+                    current = reserved.get();
+                    if (current + quantity > product.getQuantity()) {
+                        throw new IllegalArgumentException("Insufficient stock for " + product.getName()
+                                + ". Only " + Math.max(0, product.getQuantity() - current) + " available");
+                    }
+                } while (!reserved.compareAndSet(current, current + quantity));
+
+                cart.quantities.merge(productId, quantity, Integer::sum);
+                cart.expiresAt = System.currentTimeMillis() + ttlMillis;
+                return;
+            }
+        }
+    }
+
+    // gives back everything the cart holds, used when the cart is cancelled and after its order was placed
+    public void release(UUID cartId) {
+        if (cartId == null) {
+            return;
+        }
+        CartHold cart = holdsByCart.remove(cartId);
+        if (cart != null) {
+            close(cart);
+        }
+    }
+
+    // stock on hand minus what the carts hold, from memory as long as the product is cached
+    public int getAvailableToSell(UUID productId) {
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null.");
+        }
+        return Math.max(0, loadProduct(productId).getQuantity() - getReserved(productId));
+    }
+
+    public int getReserved(UUID productId) {
+        AtomicInteger reserved = reservedByProduct.get(productId);
+        return reserved == null ? 0 : reserved.get();
+    }
+
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, CartHold> entry : holdsByCart.entrySet()) {
+            CartHold cart = entry.getValue();
+            boolean expired;
+            synchronized (cart) {
+                expired = cart.expiresAt <= now;
+            }
+            if (expired && holdsByCart.remove(entry.getKey(), cart)) {
+                close(cart);
+            }
+        }
+    }
+
+    private void close(CartHold cart) {
+        synchronized (cart) {
+            if (cart.closed) {
+                return;
+            }
+            cart.closed = true;
+            for (Map.Entry<UUID, Integer> hold : cart.quantities.entrySet()) {
+                AtomicInteger reserved = reservedByProduct.get(hold.getKey());
+                if (reserved != null) {
+                    reserved.addAndGet(-hold.getValue());
+                }
+            }
+            cart.quantities.clear();
+        }
+    }
+
+    // the cached product when there is one, the database only on a miss
+    private Product loadProduct(UUID productId) {
+        Product cached = productCache.getById(productId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            long generation = productCache.currentGeneration();
+            Optional<Product> product = productDAO.findByProductId(productId);
+            if (product.isEmpty()) {
+                throw new IllegalArgumentException("Product ID " + productId + " not found.");
+            }
+            productCache.put(product.get(), generation);
+            return product.get();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error occurred while checking stock for product: " + productId, e);
+        }
+    }
+}
@@ -3,18 +3,52 @@ package main.java.service;
 
 import main.java.dao.UserDAO;
 import main.java.model.User;
+import main.java.util.HashingService;
+import main.java.util.LruCache;
 import main.java.util.SecurityUtil;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class UserService {
+    private static final int USERNAME_CACHE_SIZE = 1_000;
+    private static final long USERNAME_CACHE_TTL_MS = 60_000;
+
     private final UserDAO userDAO;
+    private final HashingService hashingService;
+
+    // username (lower case, the column compares case insensitive) -> user, Optional.empty() remembers unknown names
+    // so a burst of logins with made up names does not reach the database; the cached users have no password hash,
+    // login reads only the hash from the database so a changed password or a deleted user stops working right away
+    // on every terminal (a user added on another terminal can log in here once the unknown entry expires)
+    private final LruCache<String, Optional<User>> usersByName = new LruCache<>(USERNAME_CACHE_SIZE, USERNAME_CACHE_TTL_MS);
+    // bumped on every invalidation so a load that raced with a write does not store old data
+    private final AtomicLong generation = new AtomicLong();
 
     public UserService(UserDAO userDAO) {
+        this(userDAO, new HashingService());
+    }
+
+    public UserService(UserDAO userDAO, HashingService hashingService) {
         this.userDAO = userDAO;
+        this.hashingService = hashingService;
+    }
+
+    // the *Async versions run the whole call on the hashing threads, the UI uses them so BCrypt never blocks the EDT
+    public CompletableFuture<User> createUserAsync(User user) {
+        return hashingService.submit(() -> createUser(user));
+    }
+
+    public CompletableFuture<User> loginAsync(String username, String password) {
+        return hashingService.submit(() -> login(username, password));
+    }
+
+    public CompletableFuture<User> updateUserAsync(User user) {
+        return hashingService.submit(() -> updateUser(user));
     }
 
     public User createUser(User user) {
@@ -35,14 +69,17 @@ public class UserService {
         }
 
         try {
-            if(userDAO.findByUserName(user.getUsername()).isPresent()) {
+            if(findByUserName(user.getUsername()).isPresent()) {
                 throw new IllegalArgumentException("Username '" + user.getUsername() + "' already exists.");
             }
 
-            String hashedPassword = SecurityUtil.hashPassword(user.getPassword());
+            String hashedPassword = hashingService.hashPassword(user.getPassword());
             user.setPassword(hashedPassword);
 
-            return userDAO.save(user);
+            User saved = userDAO.save(user);
+            // the name may be cached as unknown
+            forgetUserName(saved.getUsername());
+            return saved;
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while creating user: " + user.getUsername(), e);
         }
@@ -50,18 +87,32 @@ public class UserService {
 
     public User login(String username, String password) {
         try {
-            Optional<User> userOpt = userDAO.findByUserName(username);
+            Optional<User> userOpt = findByUserName(username);
 
             if(userOpt.isEmpty()) {
                 throw new SecurityException("Invalid credentials.");
             }
 
             User user = userOpt.get();
+            // a single column read by primary key, it also finds out if the user was renamed or deleted meanwhile
+            Optional<String> hash = userDAO.findPasswordHash(user.getUserId(), user.getUsername());
+            if(hash.isEmpty()) {
+                forgetUserName(user.getUsername());
+                throw new SecurityException("Invalid credentials.");
+            }
+            user.setPassword(hash.get());
 
             if(! SecurityUtil.verifyPassword(password, user.getPassword())) {
                 throw new SecurityException("Invalid credentials.");
             }
 
+            // the cost factor was changed since this password was stored, we have the plain password now so upgrade it
+            if(hashingService.needsRehash(user.getPassword())) {
+                user.setPassword(hashingService.hashPassword(password));
+                userDAO.update(user);
+                forgetUserName(user.getUsername());
+            }
+
             return user;
         } catch (SQLException e) {
             throw new RuntimeException("Database error during login for user: " + username, e);
@@ -74,7 +125,7 @@ public class UserService {
         }
 
         try {
-            return userDAO.findByUserName(username);
+            return findByUserName(username);
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while getting user: " + username, e);
         }
@@ -118,20 +169,27 @@ public class UserService {
         }
 
         try {
-            if(userDAO.findUserById(user.getUserId()).isEmpty()) {
+            Optional<User> currentUser = userDAO.findUserById(user.getUserId());
+            if(currentUser.isEmpty()) {
                 throw new IllegalArgumentException("Cannot update user. User with ID " + user.getUserId() + " not found.");
             }
 
-            Optional<User> existingUserWithName = userDAO.findByUserName(user.getUsername());
+            Optional<User> existingUserWithName = findByUserName(user.getUsername());
 
             if (existingUserWithName.isPresent()) {
                 if (!existingUserWithName.get().getUserId().equals(user.getUserId())) {
                     throw new IllegalArgumentException("Username '" + user.getUsername() + "' is already taken by another user.");
                 }
             }
-            user.setPassword(SecurityUtil.hashPassword(user.getPassword()));
+            // the user panel sends the stored hash back when the password field was left empty, do not hash it twice
+            if(!user.getPassword().equals(currentUser.get().getPassword())) {
+                user.setPassword(hashingService.hashPassword(user.getPassword()));
+            }
 
-            return userDAO.update(user);
+            User updated = userDAO.update(user);
+            forgetUserName(currentUser.get().getUsername());
+            forgetUserName(user.getUsername());
+            return updated;
 
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while updating user: " + user.getUsername(), e);
@@ -144,13 +202,49 @@ public class UserService {
         }
 
         try {
-            if(userDAO.findUserById(id).isEmpty()) {
+            Optional<User> existing = userDAO.findUserById(id);
+            if(existing.isEmpty()) {
                 throw new IllegalArgumentException("Cannot delete user. User with ID " + id + " not found.");
             }
 
             userDAO.delete(id);
+            forgetUserName(existing.get().getUsername());
         } catch (SQLException e) {
             throw new RuntimeException("Database error occurred while deleting user: " + id, e);
         }
     }
+
+    // cached lookup by username for the name checks, the user comes back without its password hash
+    private Optional<User> findByUserName(String username) throws SQLException {
+        if(username == null) {
+            return Optional.empty();
+        }
+        String key = username.toLowerCase();
+
+        Optional<User> cached = usersByName.get(key);
+        if(cached == null) {
+            long loadedAt = generation.get();
+            cached = userDAO.findByUserName(username).map(UserService::withoutPassword);
+            synchronized (usersByName) {
+                if(generation.get() == loadedAt) {
+                    usersByName.put(key, cached);
+                }
+            }
+        }
+        return cached.map(UserService::withoutPassword);
+    }
+
+    private void forgetUserName(String username) {
+        if(username != null) {
+            synchronized (usersByName) {
+                generation.incrementAndGet();
+                usersByName.remove(username.toLowerCase());
+            }
+        }
+    }
+
+    // also a copy, so callers can change the user without touching the cache
+    private static User withoutPassword(User user) {
+        return new User(user.getUserId(), user.getUsername(), null, user.getRole());
+    }
 }
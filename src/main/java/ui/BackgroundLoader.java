@@ -0,0 +1,103 @@
+package main.java.ui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+// runs a database query off the EDT and hands the result back on the EDT
+// each table gets its own loader, starting a new load cancels the one still running so only the newest result is shown
+public class BackgroundLoader {
+
+    private final JComponent owner;
+    private final JLabel statusLabel;
+
+    // only touched on the EDT
+    private SwingWorker<?, ?> current;
+    private long generation;
+
+    public BackgroundLoader(JComponent owner) {
+        this(owner, null);
+    }
+
+    // statusLabel is optional, it shows "Loading..." while a query runs
+    public BackgroundLoader(JComponent owner, JLabel statusLabel) {
+        this.owner = owner;
+        this.statusLabel = statusLabel;
+    }
+
+    public <T> void load(Callable<T> query, Consumer<T> apply) {
+        load(query, apply, error -> JOptionPane.showMessageDialog(owner,
+                "Failed to load data: " + error.getMessage(),
+                "Data Base Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // must be called on the EDT, apply and onError also run on the EDT
+    public <T> void load(Callable<T> query, Consumer<T> apply, Consumer<Throwable> onError) {
+        if (current != null) {
+            // we do not interrupt, a JDBC call does not react well to it, the old result is just thrown away
+            current.cancel(false);
+        }
+        long myGeneration = ++generation;
+        setLoading(true);
+
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return query.call();
+            }
+
+            @Override
+            protected void done() {
+                if (myGeneration != generation) {
+                    return; // a newer load replaced this one
+                }
+                current = null;
+                setLoading(false);
+
+                try {
+                    apply.accept(get());
+                } catch (CancellationException e) {
+                    // superseded
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    onError.accept(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    private void setLoading(boolean loading) {
+        owner.setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+        if (statusLabel != null) {
+            statusLabel.setText(loading ? "Loading..." : " ");
+        }
+    }
+
+    // swaps all rows of the model with a single table event instead of one event per addRow
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void replaceRows(DefaultTableModel model, List<Object[]> rows) {
+        Vector data = model.getDataVector();
+        data.clear();
+        for (Object[] row : rows) {
+            Vector<Object> line = new Vector<>(row.length);
+            for (Object value : row) {
+                line.add(value);
+            }
+            data.add(line);
+        }
+        model.fireTableDataChanged();
+    }
+}
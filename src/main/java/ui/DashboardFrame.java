@@ -4,6 +4,7 @@ import main.java.controller.CategoryController; // استيراد متحكم ا
 import main.java.controller.InventoryController;
 import main.java.controller.OrderController;
 import main.java.controller.UserController;
+import main.java.database.DBConnection;
 import main.java.util.SessionUtil;
 import javax.swing.*;
 import java.awt.*;
@@ -38,6 +39,11 @@ public class DashboardFrame extends JFrame {
                         "Are you sure you want to Log Out?",
                         "Log Out", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
                     SessionUtil.logout();
+                    // ننتظر كتابة الإيصالات المتبقية في الطابور قبل إغلاق الاتصالات
+                    orderController.shutdown();
+                    // تغييرات المخزون المؤجلة تُكتب في قاعدة البيانات قبل إغلاق الاتصالات
+                    inventoryController.shutdown();
+                    DBConnection.shutdown();
                     System.exit(0);
                 }
             }
@@ -102,26 +102,47 @@ public class LoginFrame extends JFrame {
             String username = usernameField.getText();
             String password = new String(passwordField.getPassword());
 
-            if (authController.login(username, password)) {
-                // النجاح: إخفاء نافذة الدخول وعرض لوحة التحكم
-                JOptionPane.showMessageDialog(LoginFrame.this,
-                        "Welcome " + SessionUtil.getCurrentUser().getUsername(),
-                        "Login Successful", JOptionPane.INFORMATION_MESSAGE);
-
-                // إخفاء هذه النافذة
-                dispose();
-
-                // عرض لوحة التحكم بمرور جميع Controllers المطلوبة
-                new DashboardFrame(inventoryController, categoryController, userController, orderController).setVisible(true);
-
-            }else{
-                JOptionPane.showMessageDialog(LoginFrame.this,
-                        "Invalid Username or Password",
-                        "Login Failed", JOptionPane.ERROR_MESSAGE);
-
-                //here we cleared the password text for security reasons
-                passwordField.setText("");
-            }
+            // BCrypt is slow on purpose, the check runs on the hashing threads and we come back to the EDT with the result
+            loginButton.setEnabled(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+            authController.loginAsync(username, password)
+                    .whenComplete((success, error) -> SwingUtilities.invokeLater(() -> onLoginFinished(success, error)));
+        }
+    }
+
+    private void onLoginFinished(Boolean success, Throwable error) {
+        loginButton.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
+
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "Login failed: " + cause.getMessage(),
+                    "Login Failed", JOptionPane.ERROR_MESSAGE);
+            passwordField.setText("");
+            return;
+        }
+
+        if (Boolean.TRUE.equals(success)) {
+            // النجاح: إخفاء نافذة الدخول وعرض لوحة التحكم
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "Welcome " + SessionUtil.getCurrentUser().getUsername(),
+                    "Login Successful", JOptionPane.INFORMATION_MESSAGE);
+
+            // إخفاء هذه النافذة
+            dispose();
+
+            // عرض لوحة التحكم بمرور جميع Controllers المطلوبة
+            new DashboardFrame(inventoryController, categoryController, userController, orderController).setVisible(true);
+
+        }else{
+            JOptionPane.showMessageDialog(LoginFrame.this,
+                    "Invalid Username or Password",
+                    "Login Failed", JOptionPane.ERROR_MESSAGE);
+
+            //here we cleared the password text for security reasons
+            passwordField.setText("");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,197 @@
+package main.java.ui;
+
+import main.java.controller.OrderController;
+import main.java.model.Order;
+import main.java.model.OrderSummary;
+import main.java.util.UuidGenerator;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+// order history table that only keeps a few pages of order summaries in memory
+// pages are fetched in the background when the table asks for a row we do not have yet
+public class OrderHistoryTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"Order ID", "Date", "Total", "Status"};
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 20;
+    private static final String LOADING = "Loading...";
+
+    private final OrderController orderController;
+    private final NumberFormat currencyFormat;
+    // told on the EDT when a page could not be loaded, the panel shows it to the cashier
+    private Consumer<Throwable> loadErrorListener = error -> { };
+
+    // everything below is only touched on the EDT
+    private int rowCount;
+    // page number -> orders, access ordered so the least recently shown page is dropped first
+    private final LinkedHashMap<Integer, List<OrderSummary>> pages = new LinkedHashMap<Integer, List<OrderSummary>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<OrderSummary>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // first order of each page we have seen, lets the next fetch of that page use the keyset query directly
+    private final Map<Integer, OrderSummary> pageStarts = new HashMap<>();
+    private final Set<Integer> pendingPages = new HashSet<>();
+    // bumped on refresh so pages still loading from before are thrown away
+    private long generation;
+
+    public OrderHistoryTableModel(OrderController orderController, NumberFormat currencyFormat) {
+        this.orderController = orderController;
+        this.currencyFormat = currencyFormat;
+    }
+
+    public void setLoadErrorListener(Consumer<Throwable> loadErrorListener) {
+        this.loadErrorListener = loadErrorListener;
+    }
+
+    // must be called on the EDT with the new total number of orders (read in the background)
+    public void reset(int newRowCount) {
+        generation++;
+        pages.clear();
+        pageStarts.clear();
+        pendingPages.clear();
+        rowCount = newRowCount;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        OrderSummary order = getOrderAt(row);
+        if (order == null) {
+            return column == 0 ? LOADING : "";
+        }
+        switch (column) {
+            case 0:
+                return UuidGenerator.shortCode(order.getOrderId());
+            case 1:
+                return order.getCreatedAt();
+            case 2:
+                return currencyFormat.format(order.getTotal() / 100.0);
+            case 3:
+                return order.getStatus();
+            default:
+                return "";
+        }
+    }
+
+    // the order shown in a row, null while its page is still loading (the load is started by this call)
+    public OrderSummary getOrderAt(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int page = row / PAGE_SIZE;
+        List<OrderSummary> orders = pages.get(page);
+        if (orders == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < orders.size() ? orders.get(index) : null;
+    }
+
+    // full id of the order in a row, null while its page is still loading
+    public UUID getOrderIdAt(int row) {
+        OrderSummary order = getOrderAt(row);
+        return order == null ? null : order.getOrderId();
+    }
+
+    private void requestPage(int page) {
+        if (!pendingPages.add(page)) {
+            return;
+        }
+        long requestGeneration = generation;
+        OrderSummary knownStart = pageStarts.get(page);
+
+        new SwingWorker<List<OrderSummary>, Void>() {
+            @Override
+            protected List<OrderSummary> doInBackground() {
+                OrderSummary start = knownStart;
+                if (start == null && page > 0) {
+                    // jumped somewhere we have not been yet, find the first order of the page by its position
+                    Order first = orderController.getOrderAtPosition(page * PAGE_SIZE).orElse(null);
+                    if (first == null) {
+                        return List.of();
+                    }
+                    start = keyOf(first);
+                }
+                // one extra row tells us where the next page starts
+                return start == null
+                        ? orderController.getOrderSummaries(null, null, PAGE_SIZE + 1)
+                        : orderController.getOrderSummaries(start.getCreatedAt(), start.getOrderId(), PAGE_SIZE + 1);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                List<OrderSummary> orders;
+                try {
+                    orders = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // the page stays marked as pending so repaints do not hammer a failing database, refresh retries it
+                    loadErrorListener.accept(e.getCause() != null ? e.getCause() : e);
+                    return;
+                }
+                pendingPages.remove(page);
+
+                if (!orders.isEmpty()) {
+                    pageStarts.put(page, orders.get(0));
+                }
+                if (orders.size() > PAGE_SIZE) {
+                    pageStarts.put(page + 1, orders.get(PAGE_SIZE));
+                    orders = new ArrayList<>(orders.subList(0, PAGE_SIZE));
+                }
+                pages.put(page, orders);
+
+                int first = page * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (first <= last) {
+                    fireTableRowsUpdated(first, last);
+                }
+            }
+        }.execute();
+    }
+
+    // only the fields the keyset query needs
+    private static OrderSummary keyOf(Order order) {
+        return new OrderSummary(order.getOrderId(), order.getCreatedAt(), null, 0, 0);
+    }
+}
@@ -6,12 +6,20 @@ import main.java.model.Order;
 import main.java.model.OrderItem;
 import main.java.model.Product;
 import main.java.util.SessionUtil;
+import main.java.util.UuidGenerator;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,17 +29,27 @@ public class OrderPanel extends JPanel {
     private final OrderController orderController;
     private final InventoryController inventoryController;
     private final List<OrderItem> currentCart = new ArrayList<>();
+    // المخزون محجوز باسم هذه السلة، يتغير بعد كل طلب أو إلغاء
+    private UUID cartId = UuidGenerator.newId();
     // تم تغيير هذا المتغير ليتم تعيينه في loadProductData()
     private List<Product> availableProducts = new ArrayList<>();
+    // the full list from the last load, shown again when the search box is cleared
+    private List<Product> allProducts = new ArrayList<>();
+    private static final int SEARCH_LIMIT = 50;
 
     //UI Components
     private JTable cartTable;
     private DefaultTableModel cartTableModel;
     private JTable productsTable;
+    private final JTextField productSearchField = new JTextField();
     private DefaultTableModel productTableModel;
     private JTable historyTable;
-    private DefaultTableModel historyTableModel;
+    private OrderHistoryTableModel historyTableModel;
     private JLabel totalLabel;
+    private final JLabel productsStatusLabel = new JLabel(" ");
+    private final JLabel historyStatusLabel = new JLabel(" ");
+    private BackgroundLoader productsLoader;
+    private BackgroundLoader historyLoader;
 
     // تنسيق الأرقام لعرض العملة
     private static final java.text.NumberFormat CURRENCY_FORMAT =
@@ -91,10 +109,45 @@ public class OrderPanel extends JPanel {
 
         productsTable = new JTable(productTableModel);
         productsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        productsLoader = new BackgroundLoader(productsTable, productsStatusLabel);
 
         JButton addToCartButton = new JButton("Add Selected to Cart");
         addToCartButton.addActionListener(this::addToCartAction);
 
+        // البحث أثناء الكتابة، النتائج تأتي من فهرس في الذاكرة وليس من قاعدة البيانات
+        productSearchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterProducts();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterProducts();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterProducts();
+            }
+        });
+        // Enter يضيف أول نتيجة إلى العربة
+        productSearchField.addActionListener(e -> {
+            if (!availableProducts.isEmpty()) {
+                productsTable.setRowSelectionInterval(0, 0);
+                addToCartAction(e);
+            }
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 5));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(productSearchField, BorderLayout.CENTER);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(searchPanel, BorderLayout.NORTH);
+        northPanel.add(productsStatusLabel, BorderLayout.SOUTH);
+
+        panel.add(northPanel, BorderLayout.NORTH);
         panel.add(new JScrollPane(productsTable),BorderLayout.CENTER);
         panel.add(addToCartButton, BorderLayout.SOUTH);
 
@@ -154,7 +207,8 @@ public class OrderPanel extends JPanel {
         Product selectedProduct = availableProducts.get(selectedRow);
 
         String quantityStr = JOptionPane.showInputDialog(this,
-                "Enter quantity for "+ selectedProduct.getName()+ ":",
+                "Enter quantity for "+ selectedProduct.getName()+ " ("
+                        + orderController.getAvailableToSell(selectedProduct.getProductId()) + " available):",
                 "1");
         if(quantityStr == null) return; // user cancelled
 
@@ -162,9 +216,12 @@ public class OrderPanel extends JPanel {
             int quantity = Integer.parseInt(quantityStr);
             if(quantity <= 0)throw new NumberFormatException();
 
-            if(quantity > selectedProduct.getQuantity()) {
+            // الحجز يتحقق من المخزون الحالي ناقص ما تحجزه السلال الأخرى، وليس من القائمة المعروضة
+            try {
+                orderController.reserveStock(cartId, selectedProduct.getProductId(), quantity);
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(this,
-                        "Insufficient Stock. Only " + selectedProduct.getQuantity() + " available",
+                        ex.getMessage(),
                         "Stock Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
@@ -172,13 +229,6 @@ public class OrderPanel extends JPanel {
             boolean itemFound = false;
             for(OrderItem cartItem : currentCart){
                 if(cartItem.getProductId().equals(selectedProduct.getProductId())){
-                    // التحقق من الكمية المتاحة للكمية المجمعة
-                    if(cartItem.getQuantity() + quantity > selectedProduct.getQuantity()){
-                        JOptionPane.showMessageDialog(this,
-                                "Adding "+ quantity + " exceeds current stock of "+ selectedProduct.getName() ,
-                                "Stock Error",JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
                     cartItem.setQuantity(cartItem.getQuantity() + quantity);
                     itemFound = true;
                     break;
@@ -213,9 +263,9 @@ public class OrderPanel extends JPanel {
 
         try{
             // تم تصحيح خطأ تمرير القائمة
-            UUID newOrderId = orderController.placeNewOrder(SessionUtil.getCurrentUser().getUserId(), currentCart);
+            UUID newOrderId = orderController.placeNewOrder(SessionUtil.getCurrentUser().getUserId(), currentCart, cartId);
             JOptionPane.showMessageDialog(this,
-                    "Order "+ newOrderId.toString().substring(0,8)+" placed successfully!",
+                    "Order "+ UuidGenerator.shortCode(newOrderId)+" placed successfully!",
                     "Success",JOptionPane.INFORMATION_MESSAGE);
 
             // تحديث مكونات الواجهة
@@ -236,6 +286,9 @@ public class OrderPanel extends JPanel {
     }
 
     private void clearCart(){
+        // إعادة المخزون المحجوز، لا يفعل شيئاً إذا تم استهلاكه مع الطلب
+        orderController.releaseStock(cartId);
+        cartId = UuidGenerator.newId();
         currentCart.clear();
         updateCartTable();
     }
@@ -246,14 +299,12 @@ public class OrderPanel extends JPanel {
         JPanel historyPanel = new JPanel(new BorderLayout());
         historyPanel.setBorder(BorderFactory.createTitledBorder("Order History"));
 
-        String[] historyColumns = {"Order ID","Date","Total","Status"};
-        historyTableModel = new DefaultTableModel(historyColumns, 0){
-            @Override
-            public boolean isCellEditable(int row, int column){
-                return false;
-            }
-        };
+        // الجدول يحمّل الصفحات عند الحاجة فقط أثناء التمرير
+        historyTableModel = new OrderHistoryTableModel(orderController, CURRENCY_FORMAT);
+        historyTableModel.setLoadErrorListener(ex ->
+                historyStatusLabel.setText("Could not load orders: " + ex.getMessage() + " (press Refresh History to try again)"));
         historyTable = new JTable(historyTableModel);
+        historyLoader = new BackgroundLoader(historyTable, historyStatusLabel);
 
         JButton refreshButton = new JButton("Refresh History");
         // تم تصحيح استدعاء الدالة
@@ -266,11 +317,24 @@ public class OrderPanel extends JPanel {
         JButton printButton = new JButton("Print Receipt");
         printButton.addActionListener(this::printOrderAction);
 
+        JButton viewReceiptButton = new JButton("View Receipt");
+        viewReceiptButton.addActionListener(this::viewReceiptAction);
+
+        JButton reprintButton = new JButton("Reprint Range");
+        reprintButton.addActionListener(this::reprintRangeAction);
+
+        JButton findButton = new JButton("Find by Code");
+        findButton.addActionListener(this::findByCodeAction);
+
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         controlPanel.add(refreshButton);
+        controlPanel.add(findButton);
         controlPanel.add(viewDetailsButton);
         controlPanel.add(printButton);
+        controlPanel.add(viewReceiptButton);
+        controlPanel.add(reprintButton);
 
+        historyPanel.add(historyStatusLabel, BorderLayout.NORTH);
         historyPanel.add(new JScrollPane(historyTable), BorderLayout.CENTER);
         historyPanel.add(controlPanel, BorderLayout.SOUTH);
 
@@ -280,89 +344,192 @@ public class OrderPanel extends JPanel {
     //methods
 
     private void viewDetailsAction(ActionEvent e){
+        UUID orderId = selectedOrderId("Please select an Order from the history table.");
+        if (orderId == null) {
+            return;
+        }
+
+        // نجلب الطلب المحدد فقط بمعرفه الكامل بدلاً من تحميل جميع الطلبات والبحث فيها
+        Optional<Order> selectedOrderOpt = orderController.findOrderById(orderId);
+
+        if(selectedOrderOpt.isPresent()){
+            showOrderDetails(selectedOrderOpt.get());
+        }else{
+            JOptionPane.showMessageDialog(this,
+                    "Order details could not be loaded",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // full id of the order selected in the history table, null (after telling the user why) if there is none yet
+    private UUID selectedOrderId(String noSelectionMessage) {
         int selectedRow = historyTable.getSelectedRow();
         if(selectedRow == -1){
+            JOptionPane.showMessageDialog(this, noSelectionMessage,
+                    "Selection Error",JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        UUID orderId = historyTableModel.getOrderIdAt(historyTable.convertRowIndexToModel(selectedRow));
+        if (orderId == null) {
             JOptionPane.showMessageDialog(this,
-                    "Please select an Order from the history table.",
+                    "The selected order is still loading, please try again.",
                     "Selection Error",JOptionPane.WARNING_MESSAGE);
+        }
+        return orderId;
+    }
+
+    private void showOrderDetails(Order selectedOrder) {
+        // تم تصحيح StringBuilder من details إلى detail
+        StringBuilder detail = new StringBuilder(String.format("Order ID: %s\nStaff ID: %s\n" +
+                        "Status: %s\nDate: %s\n\nItems:\n",
+                UuidGenerator.shortCode(selectedOrder.getOrderId()),
+                // يفترض وجود دالة getUserId
+                selectedOrder.getUserId() != null ? selectedOrder.getUserId().toString().substring(0,8) : "N/A",
+                selectedOrder.getStatus(),
+                selectedOrder.getCreatedAt()));
+
+        // تم تصحيح الدالة selectedOrder.get() إلى selectedOrder.getOrderItems() (بافتراض هذا الاسم)
+        // ويجب التأكد من وجود هذه الدالة في كلاس Order
+        List<OrderItem> items = selectedOrder.getOrderItems();
+
+        // جلب أسماء جميع منتجات الطلب باستعلام واحد بدلاً من استعلام لكل عنصر
+        List<UUID> productIds = new ArrayList<>();
+        for (OrderItem item : items) {
+            productIds.add(item.getProductId());
+        }
+        Map<UUID, Product> products = inventoryController.getProductsByIds(productIds);
+
+        for (OrderItem item : items) {
+            Product product = products.get(item.getProductId());
+            detail.append(String.format("- %s (Qty: %d) @ %s each\n",
+                    product != null ? product.getName() : item.getProductId(),
+                    item.getQuantity(),
+                    CURRENCY_FORMAT.format(item.getPriceAtOrder() / 100.0) // تنسيق العملة
+            ));
+        }
+        JOptionPane.showMessageDialog(this,detail.toString(),"Order Details",
+                JOptionPane.PLAIN_MESSAGE);
+    }
+
+    // البحث عن طلب برمزه (بداية المعرف كما تظهر في الجدول أو على الإيصال)
+    private void findByCodeAction(ActionEvent e) {
+        String code = JOptionPane.showInputDialog(this,
+                "Enter the order code (as shown in the history list or on the receipt):",
+                "Find Order", JOptionPane.QUESTION_MESSAGE);
+        if (code == null || code.trim().isEmpty()) {
             return;
         }
 
-        String orderIdShort = (String) historyTableModel.getValueAt(selectedRow,0);
+        List<Order> matches;
+        try {
+            matches = orderController.findOrdersByReceiptCode(code);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(),
+                    "Invalid Code", JOptionPane.WARNING_MESSAGE);
+            return;
+        } catch (RuntimeException ex) {
+            JOptionPane.showMessageDialog(this, "Search failed: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-        // تم استبدال getAllOrders() بـ findOrderById() إذا كانت متوفرة أو بقائمة الطلبات المحملة
-        // هنا نعتمد على جلب القائمة الكاملة أولاً ثم البحث فيها
-        Optional<Order> selectedOrderOpt = orderController.getAllOrders().stream()
-                .filter(o -> o.getOrderId().toString().substring(0, 8).equals(orderIdShort))
-                .findFirst();
+        if (matches.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No order found with code " + code.trim(),
+                    "Find Order", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (matches.size() == 1) {
+            showOrderDetails(matches.get(0));
+            return;
+        }
 
-        if(selectedOrderOpt.isPresent()){
-            Order selectedOrder = selectedOrderOpt.get();
-
-            // تم تصحيح StringBuilder من details إلى detail
-            StringBuilder detail = new StringBuilder(String.format("Order ID: %s\nStaff ID: %s\n" +
-                            "Status: %s\nDate: %s\n\nItems:\n",
-                    selectedOrder.getOrderId().toString().substring(0,8),
-                    // يفترض وجود دالة getUserId
-                    selectedOrder.getUserId() != null ? selectedOrder.getUserId().toString().substring(0,8) : "N/A",
-                    selectedOrder.getStatus(),
-                    selectedOrder.getCreatedAt()));
-
-            // تم تصحيح الدالة selectedOrder.get() إلى selectedOrder.getOrderItems() (بافتراض هذا الاسم)
-            // ويجب التأكد من وجود هذه الدالة في كلاس Order
-            List<OrderItem> items = selectedOrder.getOrderItems();
-
-            for (OrderItem item : items) {
-                // يفترض أن item.getProductId() هو اسم المنتج هنا في OrderItem
-                detail.append(String.format("- %s (Qty: %d) @ %s each\n",
-                        item.getProductId(), // يفترض وجود getName() في OrderItem
-                        item.getQuantity(),
-                        CURRENCY_FORMAT.format(item.getPriceAtOrder() / 100.0) // تنسيق العملة
-                ));
+        // أكثر من طلب يبدأ بنفس الرمز، نترك المستخدم يختار
+        String[] choices = new String[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            Order order = matches.get(i);
+            choices[i] = order.getOrderId() + "  (" + order.getCreatedAt() + ", " + order.getStatus() + ")";
+        }
+        Object chosen = JOptionPane.showInputDialog(this,
+                matches.size() + " orders start with this code, choose one:",
+                "Find Order", JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        for (int i = 0; i < choices.length; i++) {
+            if (choices[i].equals(chosen)) {
+                showOrderDetails(matches.get(i));
+                return;
             }
-            JOptionPane.showMessageDialog(this,detail.toString(),"Order Details",
-                    JOptionPane.PLAIN_MESSAGE);
-        }else{
-            JOptionPane.showMessageDialog(this,
-                    "Order details could not be loaded",
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
 
     private void loadProductData() {
-        productTableModel.setRowCount(0);
-        // تم تصحيح الخطأ: يتم التخزين في متغير الكلاس availableProducts
-        this.availableProducts = inventoryController.getAllProducts();
+        // الاستعلام في الخلفية، وتحديث الجدول دفعة واحدة على EDT
+        productsLoader.load(() -> {
+            List<Product> products = inventoryController.getAllProducts();
+            return new LoadedRows<>(products, productRows(products));
+        }, loaded -> {
+            this.allProducts = loaded.items;
+            if (productSearchField.getText().trim().isEmpty()) {
+                // تم تصحيح الخطأ: يتم التخزين في متغير الكلاس availableProducts
+                this.availableProducts = loaded.items;
+                BackgroundLoader.replaceRows(productTableModel, loaded.rows);
+            } else {
+                filterProducts();
+            }
+        });
+    }
 
-        for (Product product : availableProducts){
+    private void filterProducts() {
+        String text = productSearchField.getText().trim();
+        if (!text.isEmpty() && !inventoryController.isProductSearchReady()) {
+            // الفهرس يُملأ عند تحميل المنتجات في الخلفية، وعند انتهاء التحميل يتم البحث مرة أخرى
+            if (!productsLoader.isLoading()) {
+                loadProductData();
+            }
+            return;
+        }
+        List<Product> products;
+        try {
+            products = text.isEmpty() ? allProducts : inventoryController.searchProducts(text, SEARCH_LIMIT);
+        } catch (RuntimeException ex) {
+            productsStatusLabel.setText("Search failed: " + ex.getMessage());
+            return;
+        }
+        this.availableProducts = products;
+        BackgroundLoader.replaceRows(productTableModel, productRows(products));
+        if (!products.isEmpty()) {
+            productsTable.setRowSelectionInterval(0, 0);
+        }
+    }
+
+    private static List<Object[]> productRows(List<Product> products) {
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (Product product : products){
             // يفترض أن PriceInCents يتم تحويله للعرض
             double priceInDollars = product.getPrice() / 100.0;
-            productTableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                     product.getName(),
                     CURRENCY_FORMAT.format(priceInDollars),
                     product.getQuantity()
             });
         }
+        return rows;
     }
 
 
 
     private void loadOrderHistory(){
-        // تم تصحيح الخطأ: مسح الصفوف بدلاً من الأعمدة
-        historyTableModel.setRowCount(0);
-        List<Order> orders = orderController.getAllOrders();
-
-        // يجب أن نجد طريقة لجلب المجموع الكلي لكل طلب هنا إذا لم يكن موجوداً في كائن Order
-        for(Order order : orders){
-            // يفترض أن Total يتم حسابه أو تخزينه في كائن Order
-            double totalInDollars = order.getTotal() / 100.0;
-            historyTableModel.addRow(new Object[]{
-                    order.getOrderId().toString().substring(0,8),
-                    order.getCreatedAt(),
-                    CURRENCY_FORMAT.format(totalInDollars), // يجب أن يحتوي كائن Order على دالة getTotal
-                    order.getStatus()
-            });
+        // نقرأ عدد الطلبات فقط، والصفحات تُجلب عند ظهورها في الجدول
+        historyLoader.load(orderController::getOrderCount, historyTableModel::reset);
+    }
+
+    // the loaded objects together with the table rows built from them
+    private static class LoadedRows<T> {
+        private final List<T> items;
+        private final List<Object[]> rows;
+
+        private LoadedRows(List<T> items, List<Object[]> rows) {
+            this.items = items;
+            this.rows = rows;
         }
     }
 
@@ -394,30 +561,30 @@ public class OrderPanel extends JPanel {
 
     // ✅ دالة التعامل مع حدث الطباعة
     private void printOrderAction(ActionEvent e) {
-        int selectedRow = historyTable.getSelectedRow();
-        if(selectedRow == -1){
-            JOptionPane.showMessageDialog(this,
-                    "Please select an Order to print.",
-                    "Selection Error",JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        String orderIdShort = (String) historyTableModel.getValueAt(selectedRow,0);
-
-        // البحث عن الطلب الكامل باستخدام المعرف المختصر (نفس منطق viewDetails)
-        Optional<Order> selectedOrderOpt = orderController.getAllOrders().stream()
-                .filter(o -> o.getOrderId().toString().substring(0, 8).equals(orderIdShort))
-                .findFirst();
-
-        if (selectedOrderOpt.isPresent()) {
-            UUID orderId = selectedOrderOpt.get().getOrderId();
-
-            // استدعاء الكونترولر للطباعة
+        // الجدول يحمل المعرف الكامل، فلا حاجة للبحث بالمعرف المختصر
+        UUID orderId = selectedOrderId("Please select an Order to print.");
+        if (orderId != null) {
+            // استدعاء الكونترولر للطباعة، الكتابة تتم في خيوط الطباعة والنتيجة تصل لاحقاً
             try {
-                orderController.printOrderReceipt(orderId);
-                JOptionPane.showMessageDialog(this,
-                        "Receipt printing started in background...",
-                        "Printing", JOptionPane.INFORMATION_MESSAGE);
+                orderController.printOrderReceipt(orderId).whenComplete((result, error) ->
+                        SwingUtilities.invokeLater(() -> {
+                            if (error != null) {
+                                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                                JOptionPane.showMessageDialog(this,
+                                        "Failed to print: " + cause.getMessage(),
+                                        "Error", JOptionPane.ERROR_MESSAGE);
+                            } else if (result.isPrinted()) {
+                                JOptionPane.showMessageDialog(this,
+                                        "Receipt printed: " + result.getLocation(),
+                                        "Printing", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                // الإيصال محفوظ مسبقاً في الأرشيف ولم تتم كتابته مرة أخرى
+                                JOptionPane.showMessageDialog(this,
+                                        "This receipt is already in the " + result.getLocation()
+                                                + ", nothing was printed. Use View Receipt to see it.",
+                                        "Printing", JOptionPane.INFORMATION_MESSAGE);
+                            }
+                        }));
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this,
                         "Failed to print: " + ex.getMessage(),
@@ -426,4 +593,63 @@ public class OrderPanel extends JPanel {
         }
     }
 
+    // عرض نص الإيصال (من أرشيف الإيصالات إن كان مفعلاً)
+    private void viewReceiptAction(ActionEvent e) {
+        UUID orderId = selectedOrderId("Please select an Order to view its receipt.");
+        if (orderId == null) {
+            return;
+        }
+        try {
+            JTextArea receiptArea = new JTextArea(orderController.getReceiptText(orderId));
+            receiptArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            receiptArea.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(receiptArea),
+                    "Receipt", JOptionPane.PLAIN_MESSAGE);
+        } catch (RuntimeException ex) {
+            JOptionPane.showMessageDialog(this,
+                    "Failed to load receipt: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // إعادة طباعة جميع إيصالات فترة زمنية (مثلاً نهاية اليوم)
+    private void reprintRangeAction(ActionEvent e) {
+        String today = LocalDate.now().toString();
+        String from = (String) JOptionPane.showInputDialog(this, "From date (yyyy-MM-dd):",
+                "Reprint Receipts", JOptionPane.QUESTION_MESSAGE, null, null, today);
+        if (from == null) {
+            return;
+        }
+        String to = (String) JOptionPane.showInputDialog(this, "To date (yyyy-MM-dd):",
+                "Reprint Receipts", JOptionPane.QUESTION_MESSAGE, null, null, from);
+        if (to == null) {
+            return;
+        }
+
+        try {
+            LocalDateTime start = LocalDate.parse(from.trim()).atStartOfDay();
+            LocalDateTime end = LocalDate.parse(to.trim()).atTime(LocalTime.MAX);
+            orderController.printReceiptsForDateRange(start, end).whenComplete((count, error) ->
+                    SwingUtilities.invokeLater(() -> {
+                        if (error != null) {
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            JOptionPane.showMessageDialog(this, "Reprint failed: " + cause.getMessage(),
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this, count + " receipt(s) printed.",
+                                    "Reprint Receipts", JOptionPane.INFORMATION_MESSAGE);
+                        }
+                    }));
+            JOptionPane.showMessageDialog(this,
+                    "Reprinting receipts in background...",
+                    "Printing", JOptionPane.INFORMATION_MESSAGE);
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Dates must look like " + today,
+                    "Invalid Date", JOptionPane.WARNING_MESSAGE);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(),
+                    "Invalid Date", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import main.java.util.SessionUtil;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,9 +23,13 @@ public class ProductPanel extends JPanel {
     private final CategoryController categoryController; // حفظ متحكم الأصناف
     private JTable productTable;
     private DefaultTableModel tableModel;
+    private final JLabel statusLabel = new JLabel(" ");
+    private BackgroundLoader productsLoader;
 
     // لربط اسم الصنف بالـ UUID
     private Map<UUID, String> categoryMap = new HashMap<>();
+    // version of the categories the map was built from, -1 means never loaded
+    private long categoryVersion = -1;
 
     //can use these for our column later
     private static final int ID_COLUMN = 0;
@@ -39,9 +44,7 @@ public class ProductPanel extends JPanel {
 
         setLayout(new BorderLayout(10, 10)); // تنسيق إطار المنتج
 
-        // 1. جلب الأصناف أولاً
-        //we get the categories first
-        loadCategories();
+        // 1. الأصناف يتم جلبها مع المنتجات في الخلفية (loadProducts)
 
         // 2. تهيئة الجدول
         initializeTable();
@@ -61,7 +64,13 @@ public class ProductPanel extends JPanel {
 //get categories from controller then put inside the map
     private void loadCategories() {
         try {
+            // لا نعيد بناء الخريطة إلا إذا تغيرت الأصناف
+            long version = categoryController.getCategoriesVersion();
+            if (version == categoryVersion) {
+                return;
+            }
             List<Category> categories = categoryController.getAllCategories(); // استخدام CategoryController
+            categoryVersion = version;
             categoryMap.clear();
             for (Category c : categories) {
                 categoryMap.put(c.getCategoryId(), c.getName());
@@ -83,22 +92,45 @@ public class ProductPanel extends JPanel {
             }
         };
         productTable = new JTable(tableModel);
+        productsLoader = new BackgroundLoader(productTable, statusLabel);
     }
 
     //get products from controller then putting them in the list
     private void loadProducts() {
-        // مسح البيانات القديمة
-        tableModel.setRowCount(0);
-        try {
-            List<Product> products = inventoryController.getAllProducts();
+        loadProducts(false);
+    }
+
+    // forceRefresh = true skips the product cache (the Update List button) so changes from other terminals show up
+    // the query and the row formatting run in the background, the table is swapped in one go on the EDT
+    private void loadProducts(boolean forceRefresh) {
+        long knownCategoryVersion = categoryVersion;
+        Map<UUID, String> knownCategories = new HashMap<>(categoryMap);
+
+        productsLoader.load(() -> {
+            ProductRows result = new ProductRows();
+
+            // cheap, the categories are only read again when their version moved
+            result.categoryVersion = categoryController.getCategoriesVersion();
+            Map<UUID, String> categories = knownCategories;
+            if (result.categoryVersion != knownCategoryVersion) {
+                categories = new HashMap<>();
+                for (Category c : categoryController.getAllCategories()) {
+                    categories.put(c.getCategoryId(), c.getName());
+                }
+                result.categories = categories;
+            }
+
+            List<Product> products = forceRefresh
+                    ? inventoryController.refreshProducts()
+                    : inventoryController.getAllProducts();
             for (Product p : products) {
                 // يتم تحويل السعر من Long (مثلاً سنتات) إلى double (عملة)
                 double price = p.getPrice() / 100.0;
 
                 // استخدام الخريطة لتحويل UUID الصنف إلى اسم الصنف
-                String categoryName = categoryMap.getOrDefault(p.getCategoryId(), "Unknown");
+                String categoryName = categories.getOrDefault(p.getCategoryId(), "Unknown");
 
-                tableModel.addRow(new Object[]{
+                result.rows.add(new Object[]{
                         p.getProductId(),
                         p.getName(),
                         categoryName,
@@ -106,11 +138,23 @@ public class ProductPanel extends JPanel {
                         p.getQuantity()
                 });
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error Loading Categories " + e.getMessage(),
-                    "Data Base Error", JOptionPane.ERROR_MESSAGE);
-        }
+            return result;
+        }, result -> {
+            if (result.categories != null) {
+                categoryMap = result.categories;
+                categoryVersion = result.categoryVersion;
+            }
+            BackgroundLoader.replaceRows(tableModel, result.rows);
+        }, e -> JOptionPane.showMessageDialog(this,
+                "Error Loading Products " + e.getMessage(),
+                "Data Base Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // what a background load hands back to the EDT
+    private static class ProductRows {
+        private Map<UUID, String> categories; // null when the categories did not change
+        private long categoryVersion;
+        private final List<Object[]> rows = new ArrayList<>();
     }
 
 
@@ -118,8 +162,10 @@ public class ProductPanel extends JPanel {
     private JPanel createControlPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
+        panel.add(statusLabel);
+
         JButton refreshButton = new JButton("Update List");
-        refreshButton.addActionListener(e -> loadProducts());
+        refreshButton.addActionListener(e -> loadProducts(true));
         panel.add(refreshButton);
 
         // الأزرار الإدارية تظهر للمدير فقط
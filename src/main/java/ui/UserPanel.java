@@ -7,6 +7,7 @@ import main.java.util.SessionUtil;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,6 +16,8 @@ public class UserPanel extends JPanel {
     private final UserController userController;
     private JTable userTable;
     private DefaultTableModel tableModel;
+    private final JLabel statusLabel = new JLabel(" ");
+    private BackgroundLoader usersLoader;
 
     public UserPanel(UserController userController) {
         this.userController = userController;
@@ -39,30 +42,33 @@ public class UserPanel extends JPanel {
             }
         };
         userTable = new JTable(tableModel);
+        usersLoader = new BackgroundLoader(userTable, statusLabel);
     }
 
 
     private void loadUsers() {
-        tableModel.setRowCount(0);
-        try {
+        usersLoader.load(() -> {
             List<User> users = userController.getAllUsers();
+            List<Object[]> rows = new ArrayList<>(users.size());
             for (User u : users) {
-                tableModel.addRow(new Object[]{
+                rows.add(new Object[]{
                     u.getUserId(),
                     u.getUsername(),
                     u.getPassword(),
                     u.getRole()
                 });
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "User loading error: " + e.getMessage(), "error", JOptionPane.ERROR_MESSAGE);
-        }
+            return rows;
+        }, rows -> BackgroundLoader.replaceRows(tableModel, rows),
+           e -> JOptionPane.showMessageDialog(this, "User loading error: " + e.getMessage(), "error", JOptionPane.ERROR_MESSAGE));
     }
 
 
     private JPanel createControlPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
+        panel.add(statusLabel);
+
         JButton refreshButton = new JButton("Update the list");
         refreshButton.addActionListener(e -> loadUsers());
         panel.add(refreshButton);
@@ -100,9 +106,18 @@ public class UserPanel extends JPanel {
                 String password = new String(passwordField.getPassword());
                 String role = (String) roleComboBox.getSelectedItem();
 
-                userController.createUser(username, password, role);
-                JOptionPane.showMessageDialog(this, "The user has been added successfully.");
-                loadUsers();
+                // hashing the password is slow, it runs in the background and we come back to the EDT when done
+                setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+                userController.createUserAsync(username, password, role)
+                        .whenComplete((user, error) -> SwingUtilities.invokeLater(() -> {
+                            setCursor(Cursor.getDefaultCursor());
+                            if (error != null) {
+                                JOptionPane.showMessageDialog(this, "Add-on failed: " + rootMessage(error), "error", JOptionPane.ERROR_MESSAGE);
+                                return;
+                            }
+                            JOptionPane.showMessageDialog(this, "The user has been added successfully.");
+                            loadUsers();
+                        }));
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Add-on failed: " + e.getMessage(), "error", JOptionPane.ERROR_MESSAGE);
             }
@@ -162,13 +177,26 @@ public class UserPanel extends JPanel {
                 updatedUser.setPassword(finalPassword);
 
                 // 3. استدعاء Controller (يجب عليك إنشاء هذه الدالة في UserController)
-                userController.updateUser(updatedUser);
-
-                JOptionPane.showMessageDialog(this, "The user was successfully updated.", "success", JOptionPane.INFORMATION_MESSAGE);
-                loadUsers(); // تحديث الجدول
+                setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+                userController.updateUserAsync(updatedUser)
+                        .whenComplete((user, error) -> SwingUtilities.invokeLater(() -> {
+                            setCursor(Cursor.getDefaultCursor());
+                            if (error != null) {
+                                JOptionPane.showMessageDialog(this, "User modification failed: " + rootMessage(error), "error", JOptionPane.ERROR_MESSAGE);
+                                return;
+                            }
+                            JOptionPane.showMessageDialog(this, "The user was successfully updated.", "success", JOptionPane.INFORMATION_MESSAGE);
+                            loadUsers(); // تحديث الجدول
+                        }));
             }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "User modification failed: " + e.getMessage(), "error", JOptionPane.ERROR_MESSAGE);
         }
     }
-}
\ No newline at end of file
+
+    // futures wrap the real exception in a CompletionException
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage();
+    }
+}
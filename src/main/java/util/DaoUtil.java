@@ -1,30 +1,87 @@
 package main.java.util;
 
-import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class DaoUtil {
+    // max number of ids we bind into one IN (...) list, keeps the statement size reasonable
+    public static final int IN_CHUNK_SIZE = 500;
+
+    // big endian, most significant half first, the same layout ByteBuffer used so stored ids do not change
+    // the longs are packed by hand so mapping a row does not allocate a ByteBuffer per id column
     public static byte[] uuidToBytes(UUID uuid){
         if(uuid == null){
             return null;
         }
-        ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
-
-        bb.putLong(uuid.getMostSignificantBits());
-        bb.putLong(uuid.getLeastSignificantBits());
-
-        return bb.array();
+        byte[] bytes = new byte[16];
+        putLong(bytes, 0, uuid.getMostSignificantBits());
+        putLong(bytes, 8, uuid.getLeastSignificantBits());
+        return bytes;
     }
 
     public static UUID bytesToUUID(byte[] bytes){
         if (bytes == null || bytes.length < 16){
             return null;
         }
-        ByteBuffer bb = ByteBuffer.wrap(bytes);
+        return new UUID(getLong(bytes, 0), getLong(bytes, 8));
+    }
+
+    // reads a BINARY(16) id column by position
+    public static UUID getUUID(ResultSet rs, int column) throws SQLException {
+        return bytesToUUID(rs.getBytes(column));
+    }
 
-        long firstLong = bb.getLong();
-        long secondLong = bb.getLong();
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
 
-        return new UUID(firstLong , secondLong);
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    // turns the start of a UUID in hex (like an order short code) into a 16 byte key,
+    // the missing hex digits are filled with fill ('0' gives the lowest matching key, 'f' the highest)
+    public static byte[] uuidPrefixBound(String hexPrefix, char fill) {
+        StringBuilder hex = new StringBuilder(32);
+        hex.append(hexPrefix);
+        while (hex.length() < 32) {
+            hex.append(fill);
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    // builds "?, ?, ?" with count placeholders for IN (...) queries
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    // splits a list into pieces of at most size elements
+    public static <T> List<List<T>> chunks(List<T> list, int size) {
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            result.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return result;
     }
 }
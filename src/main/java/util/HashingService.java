@@ -0,0 +1,85 @@
+package main.java.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// runs the slow BCrypt work on a few background threads so the Swing EDT never waits for it
+// the queue is bounded, when it is full new work fails right away instead of piling up
+public class HashingService {
+
+    private static final int DEFAULT_COST = 10;
+
+    private final ThreadPoolExecutor executor;
+    private final int cost;
+
+    public HashingService() {
+        this(EnvConfig.readInt("BCRYPT_COST", DEFAULT_COST),
+                EnvConfig.readInt("HASH_WORKERS", Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors()))),
+                EnvConfig.readInt("HASH_QUEUE_LIMIT", 32));
+    }
+
+    public HashingService(int cost, int workers, int queueLimit) {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31");
+        }
+        this.cost = cost;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                r -> {
+                    Thread t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    // hashes on the calling thread with the configured cost, use it from code that already runs in submit(...)
+    public String hashPassword(String password) {
+        return SecurityUtil.hashPassword(password, cost);
+    }
+
+    // true when the hash was made with another cost factor and should be replaced after a successful login
+    public boolean needsRehash(String hashedPassword) {
+        return SecurityUtil.costOf(hashedPassword) != cost;
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> hashPassword(password));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String password, String hashedPassword) {
+        return submit(() -> SecurityUtil.verifyPassword(password, hashedPassword));
+    }
+
+    // runs any work that contains hashing on the hashing threads
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(work.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new RejectedExecutionException("Too many password operations in progress, try again.", e));
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -5,6 +5,7 @@ import main.java.model.OrderItem;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -20,56 +21,74 @@ public class OrderReceiptPrinter implements Runnable {
     public OrderReceiptPrinter(Order order, List<OrderItem> items) {
         this.order = order;
         this.items = items;
-        // اسم الملف يتضمن ID الطلب ليكون مميزاً
-        this.fileName = "receipt_" + order.getOrderId().toString().substring(0,8)+ ".txt";
+        // اسم الملف يتضمن ID الطلب كاملاً، أول الأحرف هي وقت الطلب فقد تتكرر بين طلبات متقاربة
+        this.fileName = "receipt_" + order.getOrderId() + ".txt";
     }
 
     @Override
     public void run() {
+        try {
+            print();
+        } catch (IOException e) {
+            System.err.println("❌ Failed to print receipt: " + e.getMessage());
+        }
+    }
+
+    // writes the receipt on the calling thread and returns the file name, used by ReceiptPrintService
+    public String print() throws IOException {
         System.out.println("🖨️ Printing receipt for Order: " + order.getOrderId() + " in background...");
 
         try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.print(render(order, items));
 
-            // تنسيق العملة والتاريخ
-            NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-            // كتابة رأس الفاتورة
-            writer.println("=========================================");
-            writer.println("           MINI ERP SYSTEM RECEIPT       ");
-            writer.println("=========================================");
-            writer.println("Order ID: " + order.getOrderId());
-            writer.println("Date:     " + order.getCreatedAt().format(dtf));
-            writer.println("Status:   " + order.getStatus());
-            writer.println("-----------------------------------------");
-            writer.println(String.format("%-20s %5s %10s", "Item", "Qty", "Price"));
-            writer.println("-----------------------------------------");
-
-            long totalCents = 0;
-
-            // كتابة العناصر
-            for (OrderItem item : items) {
-                double price = item.getPriceAtOrder() / 100.0;
-                long lineTotal = item.getPriceAtOrder() * item.getQuantity();
-                totalCents += lineTotal;
-
-                writer.println(String.format("%5d %10s",
-                        item.getQuantity(),
-                        currency.format(price)));
+            // PrintWriter hides write errors, check them so a full disk is reported as a failure
+            if (writer.checkError()) {
+                throw new IOException("Could not write " + fileName);
             }
+            System.out.println("✅ Receipt printed successfully: " + fileName);
+        }
+        return fileName;
+    }
 
-            writer.println("-----------------------------------------");
-            writer.println("TOTAL AMOUNT: " + currency.format(totalCents / 100.0));
-            writer.println("=========================================");
-            writer.println("       Thank you for your business!      ");
+    // the receipt text, shared by the file printer and the receipt journal
+    public static String render(Order order, List<OrderItem> items) {
+        StringWriter text = new StringWriter();
+        PrintWriter writer = new PrintWriter(text);
 
-            // محاكاة عملية بطيئة (اختياري - للتوضيح فقط)
-            // Thread.sleep(2000);
+        // تنسيق العملة والتاريخ
+        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-            System.out.println("✅ Receipt printed successfully: " + fileName);
+        // كتابة رأس الفاتورة
+        writer.println("=========================================");
+        writer.println("           MINI ERP SYSTEM RECEIPT       ");
+        writer.println("=========================================");
+        writer.println("Order ID: " + order.getOrderId());
+        writer.println("Date:     " + order.getCreatedAt().format(dtf));
+        writer.println("Status:   " + order.getStatus());
+        writer.println("-----------------------------------------");
+        writer.println(String.format("%-20s %5s %10s", "Item", "Qty", "Price"));
+        writer.println("-----------------------------------------");
 
-        } catch (IOException e) {
-            System.err.println("❌ Failed to print receipt: " + e.getMessage());
+        long totalCents = 0;
+
+        // كتابة العناصر
+        for (OrderItem item : items) {
+            double price = item.getPriceAtOrder() / 100.0;
+            long lineTotal = item.getPriceAtOrder() * item.getQuantity();
+            totalCents += lineTotal;
+
+            writer.println(String.format("%5d %10s",
+                    item.getQuantity(),
+                    currency.format(price)));
         }
+
+        writer.println("-----------------------------------------");
+        writer.println("TOTAL AMOUNT: " + currency.format(totalCents / 100.0));
+        writer.println("=========================================");
+        writer.println("       Thank you for your business!      ");
+
+        writer.flush();
+        return text.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package main.java.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// archive for receipts: instead of one small file per order, receipts are appended to a few big segment files
+// an index file (order id -> segment, offset, length) lets a reprint read just that receipt with one positional read
+// a segment is closed and a new one started when it reaches maxSegmentBytes or when the day changes
+// every receipt can be gzipped on its own, so it can still be read without touching the rest of the segment
+public class ReceiptJournal {
+
+    private static final String INDEX_FILE = "receipts.idx";
+    private static final String SEGMENT_PREFIX = "receipts-";
+    private static final String SEGMENT_SUFFIX = ".jrnl";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final boolean compress;
+
+    // everything below is guarded by this
+    private final Map<UUID, Location> index = new HashMap<>();
+    private final BufferedWriter indexWriter;
+    private FileChannel segment;
+    private String segmentName;
+    private LocalDate segmentDay;
+    private int segmentSequence;
+
+    public ReceiptJournal(Path directory, long maxSegmentBytes, boolean compress) throws IOException {
+        if (maxSegmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compress = compress;
+
+        Files.createDirectories(directory);
+        loadIndex();
+        this.indexWriter = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // appends the receipt unless this order is already archived, returns where it is stored
+    public synchronized String append(UUID orderId, String receipt) throws IOException {
+        Location existing = index.get(orderId);
+        if (existing != null) {
+            return existing.toString();
+        }
+
+        byte[] data = receipt.getBytes(StandardCharsets.UTF_8);
+        if (compress) {
+            data = gzip(data);
+        }
+
+        FileChannel channel = segmentFor(data.length);
+        long offset = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+
+        // the data is written before its index line, a crash in between only loses the index entry, never points at garbage
+        Location location = new Location(segmentName, offset, data.length, compress);
+        indexWriter.write(orderId + " " + location.segment + " " + location.offset + " " + location.length + " " + (compress ? 1 : 0));
+        indexWriter.newLine();
+        indexWriter.flush();
+        index.put(orderId, location);
+        return location.toString();
+    }
+
+    // the archived receipt text of an order, empty if it was never archived
+    public Optional<String> read(UUID orderId) throws IOException {
+        Location location;
+        synchronized (this) {
+            location = index.get(orderId);
+        }
+        if (location == null) {
+            return Optional.empty();
+        }
+
+        byte[] data = new byte[location.length];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try (FileChannel channel = FileChannel.open(directory.resolve(location.segment), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset + buffer.position()) < 0) {
+                    throw new IOException("Receipt of order " + orderId + " is cut off in " + location.segment);
+                }
+            }
+        }
+        if (location.compressed) {
+            data = gunzip(data);
+        }
+        return Optional.of(new String(data, StandardCharsets.UTF_8));
+    }
+
+    public synchronized boolean contains(UUID orderId) {
+        return index.containsKey(orderId);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized void close() throws IOException {
+        indexWriter.close();
+        if (segment != null) {
+            segment.force(true);
+            segment.close();
+            segment = null;
+        }
+    }
+
+    // the open segment, or a new one if the record would not fit or a new day started
+    private FileChannel segmentFor(int recordLength) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (segment != null && (!today.equals(segmentDay) || segment.size() + recordLength > maxSegmentBytes)) {
+            segment.force(true);
+            segment.close();
+            segment = null;
+        }
+        if (segment == null) {
+            if (!today.equals(segmentDay)) {
+                segmentDay = today;
+                segmentSequence = 0;
+            }
+            // skip segments left by an earlier run of the same day, they are never appended to again
+            do {
+                segmentSequence++;
+                segmentName = SEGMENT_PREFIX + today.format(DAY_FORMAT) + "-" + segmentSequence + SEGMENT_SUFFIX;
+            } while (Files.exists(directory.resolve(segmentName)));
+            segment = FileChannel.open(directory.resolve(segmentName),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        }
+        return segment;
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        Map<String, Long> segmentSizes = new HashMap<>();
+        List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 5) {
+                continue; // half written line from a crash
+            }
+            try {
+                UUID orderId = UUID.fromString(parts[0]);
+                Location location = new Location(parts[1], Long.parseLong(parts[2]), Integer.parseInt(parts[3]), "1".equals(parts[4]));
+                Long segmentSize = segmentSizes.computeIfAbsent(location.segment, this::sizeOf);
+                if (location.offset + location.length <= segmentSize) {
+                    index.put(orderId, location);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping bad receipt index line: " + line);
+            }
+        }
+    }
+
+    private long sizeOf(String segmentName) {
+        try {
+            Path file = directory.resolve(segmentName);
+            return Files.exists(file) ? Files.size(file) : -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static final class Location {
+        final String segment;
+        final long offset;
+        final int length;
+        final boolean compressed;
+
+        Location(String segment, long offset, int length, boolean compressed) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public String toString() {
+            return segment + "@" + offset;
+        }
+    }
+}
@@ -7,7 +7,24 @@ public class SecurityUtil {
         return BCrypt.hashpw(password, BCrypt.gensalt());
     }
 
+    public static String hashPassword(String password, int cost) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
     public static boolean verifyPassword(String password, String hashedPassword) {
         return BCrypt.checkpw(password, hashedPassword);
     }
+
+    // reads the cost factor out of a hash like $2a$10$..., returns -1 if it is not a bcrypt hash
+    public static int costOf(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7
+                || hashedPassword.charAt(0) != '$' || hashedPassword.charAt(3) != '$' || hashedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package main.java.util;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// local log of the stock changes that were accepted but not written to the database yet
+// every change gets a sequence number and is one "sequence product_id change" line in a segment file,
+// a segment is sealed when its changes are handed to the database and deleted once they were committed
+// write() only buffers the line in the file, sync() makes sure it is on disk before the caller is answered
+public class StockDeltaJournal {
+
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".jrnl";
+    private static final String WRITER_ID_FILE = "writer.id";
+    // the column in stock_journal_checkpoint is VARCHAR(64)
+    private static final int MAX_WRITER_ID_LENGTH = 64;
+
+    private final Path directory;
+    // forces are done under this lock and not under this, so writers keep appending while the disk syncs
+    private final Object syncLock = new Object();
+    private long syncedUpTo;
+
+    // everything below is guarded by this
+    private FileChannel segment;
+    private Path segmentPath;
+    private long sequence;
+    // sealed segment -> last sequence in it
+    private final Map<Path, Long> sealed = new LinkedHashMap<>();
+
+    public StockDeltaJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    // the id this journal uses for its row in stock_journal_checkpoint, kept in the journal directory so the
+    // journal and its checkpoint always go together; the first run takes configured (STOCK_WRITER_ID) or makes
+    // one from the host name and the journal location, later runs fail if configured names another writer
+    public String writerId(String configured) throws IOException {
+        Path file = directory.resolve(WRITER_ID_FILE);
+        if (Files.exists(file)) {
+            String stored = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            if (configured != null && !configured.equals(stored)) {
+                throw new IOException("Stock journal in " + directory.toAbsolutePath() + " belongs to writer '" + stored
+                        + "', not '" + configured + "'");
+            }
+            return stored;
+        }
+
+        String id = configured != null ? configured : derivedWriterId();
+        if (id.isEmpty() || id.length() > MAX_WRITER_ID_LENGTH) {
+            throw new IOException("Stock writer id must be 1 to " + MAX_WRITER_ID_LENGTH + " characters: '" + id + "'");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.wrap((id + "\n").getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        return id;
+    }
+
+    // two terminals never share a journal directory, so host plus that directory is unique
+    private String derivedWriterId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "host";
+        }
+        String location = directory.toAbsolutePath().normalize().toString();
+        String suffix = "-" + UUID.nameUUIDFromBytes(location.getBytes(StandardCharsets.UTF_8)).toString().substring(0, 8);
+        if (host.length() > MAX_WRITER_ID_LENGTH - suffix.length()) {
+            host = host.substring(0, MAX_WRITER_ID_LENGTH - suffix.length());
+        }
+        return host + suffix;
+    }
+
+    // the changes with a sequence after afterSequence that are still in the journal, added up per product
+    // called once at startup, before anything is written; the segments that were read count as sealed
+    public synchronized Map<UUID, Integer> replay(long afterSequence) throws IOException {
+        Map<UUID, Integer> changes = new HashMap<>();
+        sequence = Math.max(sequence, afterSequence);
+
+        for (Path path : segments()) {
+            long last = afterSequence;
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 3) {
+                    // the last line of a crash, it was never synced so nobody was told it was saved
+                    continue;
+                }
+                try {
+                    long lineSequence = Long.parseLong(parts[0]);
+                    UUID productId = UUID.fromString(parts[1]);
+                    int change = Integer.parseInt(parts[2]);
+                    last = Math.max(last, lineSequence);
+                    if (lineSequence > afterSequence) {
+                        changes.merge(productId, change, Integer::sum);
+                    }
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+            }
+            sequence = Math.max(sequence, last);
+            sealed.put(path, last);
+        }
+        synchronized (syncLock) {
+            syncedUpTo = sequence;
+        }
+        return changes;
+    }
+
+    // appends a change and returns its sequence, it is only durable after sync(sequence)
+    public synchronized long write(UUID productId, int change) throws IOException {
+        if (segment == null) {
+            segmentPath = directory.resolve(SEGMENT_PREFIX + String.format("%020d", sequence + 1) + SEGMENT_SUFFIX);
+            segment = FileChannel.open(segmentPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        long next = sequence + 1;
+        ByteBuffer line = ByteBuffer.wrap((next + " " + productId + " " + change + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            segment.write(line);
+        }
+        sequence = next;
+        return next;
+    }
+
+    // waits until the change with this sequence is on disk, one force covers every caller that wrote before it
+    public void sync(long upTo) throws IOException {
+        synchronized (syncLock) {
+            if (syncedUpTo >= upTo) {
+                return;
+            }
+            FileChannel channel;
+            long written;
+            synchronized (this) {
+                channel = segment;
+                written = sequence;
+            }
+            if (channel != null) {
+                channel.force(false);
+            }
+            syncedUpTo = written;
+        }
+    }
+
+    // closes the open segment so the changes in it can be written out, returns the last sequence it holds
+    public long seal() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (segment != null) {
+                    segment.force(false);
+                    segment.close();
+                    sealed.put(segmentPath, sequence);
+                    segment = null;
+                    segmentPath = null;
+                }
+                syncedUpTo = sequence;
+                return sequence;
+            }
+        }
+    }
+
+    // the database has every change up to this sequence, the sealed segments holding only those can go
+    public synchronized void deleteUpTo(long upTo) throws IOException {
+        Iterator<Map.Entry<Path, Long>> it = sealed.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() <= upTo) {
+                Files.deleteIfExists(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+            sealed.put(segmentPath, sequence);
+            segment = null;
+            segmentPath = null;
+        }
+    }
+
+    // oldest first, the zero padded first sequence in the name keeps them in order
+    private List<Path> segments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+}
@@ -1,3 +1,5 @@
+-- the tables as they were before migrations existed, a database created from the old schema.sql skips all of this
+
 CREATE TABLE IF NOT EXISTS users (
     user_id BINARY(16) primary key,
     username VARCHAR(50) NOT NULL UNIQUE,
@@ -0,0 +1,10 @@
+-- copies of SUM(price_at_order * quantity) and COUNT(*) over order_items, kept up to date by the application
+-- (placeOrder writes them, OrderItemDAO.update / deleteByKeys recompute them)
+ALTER TABLE orders
+    ADD COLUMN total_cents BIGINT UNSIGNED NOT NULL DEFAULT 0,
+    ADD COLUMN item_count INT UNSIGNED NOT NULL DEFAULT 0;
+
+-- fill them in for the orders placed before the columns existed
+UPDATE orders o
+SET total_cents = (SELECT COALESCE(SUM(oi.price_at_order * oi.quantity), 0) FROM order_items oi WHERE oi.order_id = o.order_id),
+    item_count = (SELECT COUNT(*) FROM order_items oi WHERE oi.order_id = o.order_id);
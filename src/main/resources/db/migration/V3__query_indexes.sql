@@ -0,0 +1,14 @@
+-- indexes for the queries in dao_impl, named after the column order so a duplicate is easy to spot
+-- already covered without a new index:
+--   products.name          UNIQUE (findByName)
+--   order_items.order_id   first column of the primary key (findByOrderId / findByOrderIds)
+
+-- order history pages and summaries (ORDER BY created_at DESC, order_id DESC with a keyset on both)
+-- and findByDateRange (created_at BETWEEN ? AND ?)
+CREATE INDEX idx_orders_created_at_order_id ON orders (created_at, order_id);
+
+-- findByUserId, also serves the fk_user foreign key so InnoDB can drop its own user_id index
+CREATE INDEX idx_orders_user_id_created_at ON orders (user_id, created_at);
+
+-- findLowStock (quantity < ?)
+CREATE INDEX idx_products_quantity ON products (quantity);
@@ -0,0 +1,6 @@
+-- last stock journal sequence written to products by WriteBehindProductDAO, one row per running application
+-- updated in the same transaction as the stock changes so a restart never applies a change twice
+CREATE TABLE IF NOT EXISTS stock_journal_checkpoint (
+    writer_id VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
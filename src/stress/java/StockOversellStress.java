@@ -0,0 +1,155 @@
+package stress.java;
+
+import main.java.dao.CategoryDAO;
+import main.java.dao.ProductDAO;
+import main.java.dao_impl.CategoryDAOImpl;
+import main.java.dao_impl.ProductDAOImpl;
+import main.java.database.DBConnection;
+import main.java.database.MigrationRunner;
+import main.java.database.TransactionManager;
+import main.java.model.Category;
+import main.java.model.Product;
+import main.java.util.EnvConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// stress check for ProductDAO.decrementStockIfAvailable: many terminals check out carts on a few hot products
+// at the same time, every cart runs in its own transaction like placeOrder and is rolled back when a line is short
+// at the end no product may be below zero and for every product the units sold plus the stock left must be
+// exactly the stock it started with, anything else is an oversell (or a lost sale) and the exit code is 1
+// uses the same BD_* settings as the application and does nothing when BD_URL is not set
+// the products and the category it makes are deleted again when it is done
+public class StockOversellStress {
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getenv("BD_URL");
+        if (url == null || url.trim().isEmpty()) {
+            System.out.println("BD_URL is not set, skipping the stock oversell stress run.");
+            return;
+        }
+
+        int threads = EnvConfig.readInt("STRESS_THREADS", 32);
+        int checkoutsPerThread = EnvConfig.readInt("STRESS_CHECKOUTS", 200);
+        int skuCount = EnvConfig.readInt("STRESS_SKUS", 3);
+        int startStock = EnvConfig.readInt("STRESS_STOCK", 500);
+        if (threads <= 0 || checkoutsPerThread <= 0 || skuCount <= 0 || startStock < 0) {
+            throw new IllegalArgumentException("STRESS_THREADS, STRESS_CHECKOUTS and STRESS_SKUS must be positive and STRESS_STOCK not negative");
+        }
+
+        MigrationRunner.migrate();
+        ProductDAO productDAO = new ProductDAOImpl();
+        CategoryDAO categoryDAO = new CategoryDAOImpl();
+
+        // names are unique and at most 50 characters, a short random run id keeps parallel runs apart
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Category category = categoryDAO.save(new Category("stress-" + run));
+        List<UUID> skus = new ArrayList<>();
+        boolean passed = false;
+        try {
+            for (int i = 0; i < skuCount; i++) {
+                Product product = productDAO.save(new Product("stress-" + run + "-sku-" + i,
+                        category.getCategoryId(), 100, startStock));
+                skus.add(product.getProductId());
+            }
+
+            AtomicIntegerArray sold = new AtomicIntegerArray(skuCount);
+            AtomicInteger completed = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < checkoutsPerThread; i++) {
+                            Map<Integer, Integer> cart = randomCart(skuCount);
+                            try {
+                                checkout(productDAO, skus, cart);
+                                cart.forEach(sold::addAndGet);
+                                completed.incrementAndGet();
+                            } catch (IllegalArgumentException e) {
+                                rejected.incrementAndGet();
+                            } catch (SQLException | RuntimeException e) {
+                                // a deadlock between two carts is rolled back, it must not count as a sale
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }, "stress-checkout-" + t);
+                worker.start();
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            done.await();
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            int attempts = threads * checkoutsPerThread;
+            System.out.printf("%d checkouts on %d threads over %d products in %.2f s: %.0f checkouts/s%n",
+                    attempts, threads, skuCount, seconds, attempts / seconds);
+            System.out.printf("completed=%d rejected (not enough stock)=%d database errors=%d%n",
+                    completed.get(), rejected.get(), errors.get());
+
+            passed = true;
+            for (int i = 0; i < skuCount; i++) {
+                Optional<Product> product = productDAO.findByProductId(skus.get(i));
+                int left = product.map(Product::getQuantity).orElse(Integer.MIN_VALUE);
+                boolean ok = left >= 0 && sold.get(i) + left == startStock;
+                System.out.printf("sku %d: start=%d sold=%d left=%d %s%n", i, startStock, sold.get(i), left, ok ? "OK" : "OVERSOLD");
+                passed &= ok;
+            }
+        } finally {
+            for (UUID sku : skus) {
+                productDAO.delete(sku);
+            }
+            categoryDAO.delete(category.getCategoryId());
+            DBConnection.shutdown();
+        }
+
+        if (!passed) {
+            System.out.println("FAILED: the stock does not add up");
+            System.exit(1);
+        }
+        System.out.println("PASSED: no product was oversold");
+    }
+
+    // one to three lines, each on a different product, with one or two units each
+    private static Map<Integer, Integer> randomCart(int skuCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Integer, Integer> cart = new HashMap<>();
+        int lines = 1 + random.nextInt(Math.min(3, skuCount));
+        while (cart.size() < lines) {
+            cart.put(random.nextInt(skuCount), 1 + random.nextInt(2));
+        }
+        return cart;
+    }
+
+    // the stock part of placeOrder: all lines in one transaction, a short line rolls back the whole cart
+    private static void checkout(ProductDAO productDAO, List<UUID> skus, Map<Integer, Integer> cart) throws SQLException {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        cart.forEach((index, amount) -> quantities.put(skus.get(index), amount));
+        TransactionManager.inTransaction(() -> {
+            List<UUID> shortProducts = productDAO.decrementStockIfAvailable(quantities);
+            if (!shortProducts.isEmpty()) {
+                throw new IllegalArgumentException("Not enough stock for " + shortProducts);
+            }
+            return null;
+        });
+    }
+}